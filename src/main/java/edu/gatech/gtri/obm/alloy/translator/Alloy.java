@@ -1,20 +1,26 @@
 package edu.gatech.gtri.obm.alloy.translator;
 
-import edu.mit.csail.sdg.alloy4.A4Reporter;
+import edu.mit.csail.sdg.alloy4.Pos;
 import edu.mit.csail.sdg.ast.Expr;
-import edu.mit.csail.sdg.ast.Func;
-import edu.mit.csail.sdg.ast.Module;
+import edu.mit.csail.sdg.ast.ExprBinary;
+import edu.mit.csail.sdg.ast.ExprConstant;
+import edu.mit.csail.sdg.ast.ExprList;
+import edu.mit.csail.sdg.ast.ExprQt;
+import edu.mit.csail.sdg.ast.ExprUnary;
 import edu.mit.csail.sdg.ast.Sig;
 import edu.mit.csail.sdg.ast.Sig.PrimSig;
-import edu.mit.csail.sdg.parser.CompUtil;
-import java.io.FileNotFoundException;
-import java.io.PrintWriter;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -30,77 +36,55 @@ public class Alloy {
    * the mainSig name is "SimpleSequence", the module name will be "SimpleSequenceModule".
    */
   private String moduleName;
+  /** The signature of the translated class */
+  private PrimSig mainSig;
   /** List of Signatures consist of created for the translation */
   protected List<Sig> allSigs;
-  /** Expr of facts consist of facts created for the translation */
-  protected Expr allFacts;
-  /** String used to load library into the templateModule that necessary for the translator. */
-  protected static final String templateString =
-      "open Transfer[Occurrence] as o \n" + "abstract sig Occurrence{}";
-
-  /** Module created from templateString and Signatures and Facts by the translator. */
-  private static Module templateModule;
-  /** Module from the Transfer.als */
-  private static Module transferModule;
-
-  /** Functions constructed from the transfer module */
-  protected static Func happensBefore;
-
-  protected static Func happensDuring;
-  protected static Func sources;
-  protected static Func targets;
-  protected static Func subsettingItemRuleForSources;
-  protected static Func subsettingItemRuleForTargets;
-  protected static Func isAfterSource;
-  protected static Func isBeforeTarget;
-  protected static Func bijectionFiltered;
-  protected static Func functionFiltered;
-  protected static Func inverseFunctionFiltered;
-  protected static Func osteps;
-  protected static Func oinputs;
-  protected static Func ooutputs;
-  protected static Func oitems;
-
-  /** Signatures constructed from the transfer module */
-  protected static Sig transferSig;
-
-  protected static Sig transferBeforeSig;
-  protected static PrimSig occSig; // default parent/super type of Signature
+  /**
+   * Facts created for the translation by the signatures they are for (i.e., A for "all x: A | no
+   * x.steps"), in the order the facts are added. Facts not quantified over a signature are stored
+   * with the null key.
+   */
+  private Map<Sig, List<Expr>> factsBySig;
+  /** The supporting libraries shared with other Alloy objects using the same library path. */
+  private final AlloyLibrary library;
 
   /**
-   * Create this object and load required alloy libraries (Translator.als and utilities/*.als) are
-   * locating at the given working directory.
+   * Create this object using the required alloy libraries (Translator.als and utilities/*.als)
+   * locating at the given working directory. The libraries are loaded only if not loaded yet by
+   * another Alloy object.
    *
    * @param _workingDirectory (String) - The absolute file path
    */
   protected Alloy(String _workingDirectory) {
+    this.library = AlloyLibrary.forPath(_workingDirectory);
+  }
 
-    System.setProperty(("java.io.tmpdir"), _workingDirectory);
-    templateModule = CompUtil.parseEverything_fromString(new A4Reporter(), templateString);
+  /**
+   * Create this object using the required alloy libraries (Translator.als and utilities/*.als) in
+   * the classpath. The libraries are loaded only if not loaded yet by another Alloy object.
+   */
+  protected Alloy() {
+    this.library = AlloyLibrary.fromClasspath();
+  }
 
-    // abstract
-    occSig = (PrimSig) AlloyUtils.getReachableSig("this/Occurrence", templateModule);
-    transferModule = AlloyUtils.getAllReachableModuleByName("TransferModule", templateModule);
+  /**
+   * Create this object using the given already loaded libraries. Used to give each concurrent
+   * translation its own Alloy object.
+   *
+   * @param _library (AlloyLibrary) - the loaded libraries
+   */
+  Alloy(AlloyLibrary _library) {
+    this.library = _library;
+  }
 
-    happensBefore = AlloyUtils.getFunction("o/happensBefore", transferModule);
-    happensDuring = AlloyUtils.getFunction("o/happensDuring", transferModule);
-    bijectionFiltered = AlloyUtils.getFunction("o/bijectionFiltered", transferModule);
-    functionFiltered = AlloyUtils.getFunction("o/functionFiltered", transferModule);
-    inverseFunctionFiltered = AlloyUtils.getFunction("o/inverseFunctionFiltered", transferModule);
-    sources = AlloyUtils.getFunction("o/sources", transferModule);
-    targets = AlloyUtils.getFunction("o/targets", transferModule);
-    subsettingItemRuleForSources =
-        AlloyUtils.getFunction("o/subsettingItemRuleForSources", transferModule);
-    subsettingItemRuleForTargets =
-        AlloyUtils.getFunction("o/subsettingItemRuleForTargets", transferModule);
-    isAfterSource = AlloyUtils.getFunction("o/isAfterSource", transferModule);
-    isBeforeTarget = AlloyUtils.getFunction("o/isBeforeTarget", transferModule);
-    osteps = AlloyUtils.getFunction("o/steps", transferModule);
-    oinputs = AlloyUtils.getFunction("o/inputs", transferModule);
-    ooutputs = AlloyUtils.getFunction("o/outputs", transferModule);
-    oitems = AlloyUtils.getFunction("o/items", transferModule);
-    transferSig = AlloyUtils.getReachableSig("o/Transfer", transferModule);
-    transferBeforeSig = AlloyUtils.getReachableSig("o/TransferBefore", transferModule);
+  /**
+   * Get method for the supporting libraries
+   *
+   * @return (AlloyLibrary) - the libraries used by this object
+   */
+  protected AlloyLibrary getLibrary() {
+    return this.library;
   }
 
   /**
@@ -110,8 +94,8 @@ public class Alloy {
   public void initialize() {
     // initialize a list of signatures.
     allSigs = new ArrayList<Sig>();
-    // initialize allFacts as null
-    allFacts = null;
+    // initialize facts
+    factsBySig = new LinkedHashMap<>();
   }
 
   /**
@@ -132,6 +116,24 @@ public class Alloy {
     this.moduleName = _moduleName;
   }
 
+  /**
+   * Get method for the signature of the translated class
+   *
+   * @return (PrimSig) - the main signature
+   */
+  protected PrimSig getMainSig() {
+    return this.mainSig;
+  }
+
+  /**
+   * Set the signature of the translated class.
+   *
+   * @param _mainSig (PrimSig)
+   */
+  protected void setMainSig(PrimSig _mainSig) {
+    this.mainSig = _mainSig;
+  }
+
   /**
    * Get method for all signatures
    *
@@ -153,52 +155,103 @@ public class Alloy {
   /**
    * Get method for facts
    *
-   * @return (Expr) - all facts
+   * @return (Expr) - the facts written to the alloy module (see write) as a conjunction grouped by
+   *     signatures, or null if no such fact is added
    */
   protected Expr getFacts() {
-    return this.allFacts;
+    List<Expr> facts = new ArrayList<>();
+    for (Sig sig : allSigs) facts.addAll(getFacts(sig));
+    if (facts.isEmpty()) return null;
+    return facts.size() == 1
+        ? facts.get(0)
+        : ExprList.make(Pos.UNKNOWN, Pos.UNKNOWN, ExprList.Op.AND, facts);
+  }
+
+  /**
+   * Get method for facts by signatures
+   *
+   * @return (Map<Sig, List<Expr>>) - an unmodifiable map of facts by the signatures they are for,
+   *     in the order added. Facts not quantified over a signature are with the null key.
+   */
+  protected Map<Sig, List<Expr>> getFactsBySig() {
+    return Collections.unmodifiableMap(this.factsBySig);
+  }
+
+  /**
+   * Get facts for the given signature
+   *
+   * @param _sig (Sig) - a signature
+   * @return (List<Expr>) - an unmodifiable list of facts for the signature in the order added
+   */
+  protected List<Expr> getFacts(Sig _sig) {
+    List<Expr> facts = factsBySig.get(_sig);
+    return facts == null ? Collections.emptyList() : Collections.unmodifiableList(facts);
   }
 
   /**
-   * Add an expression to allFacts instance variable
+   * Add an expression to facts. A conjunction (i.e., "a and b") is added as separate facts.
    *
    * @param _expr (Expr) - a expression to be added
    */
   protected void addToFact(Expr _expr) {
-    if (allFacts == null) allFacts = _expr;
-    else allFacts = allFacts.and(_expr);
+    Expr expr = _expr.deNOP();
+    if (expr.isSame(ExprConstant.TRUE)) return;
+    if (expr instanceof ExprBinary && ((ExprBinary) expr).op == ExprBinary.Op.AND) {
+      addToFact(((ExprBinary) expr).left);
+      addToFact(((ExprBinary) expr).right);
+    } else if (expr instanceof ExprList && ((ExprList) expr).op == ExprList.Op.AND) {
+      for (Expr arg : ((ExprList) expr).args) addToFact(arg);
+    } else factsBySig.computeIfAbsent(getFactSig(expr), k -> new ArrayList<>()).add(_expr);
   }
 
   /**
-   * Add a set of expression to allFacts instance variable
+   * Add a set of expression to facts
    *
    * @param _exprs (Set<Expr>) - a set of expression to be added
    */
   protected void addToFacts(Set<Expr> _exprs) {
-    for (Expr expr : _exprs) {
-      if (allFacts == null) allFacts = expr;
-      else allFacts = allFacts.and(expr);
-    }
+    for (Expr expr : _exprs) addToFact(expr);
   }
 
   /**
-   * Write an alloy file from all Signatures and Facts as a file.
+   * Write an alloy file from all Signatures and Facts as a file. Signatures are written in the
+   * order of their labels, each followed by its facts. Each signature and fact is written to the
+   * file as it is formatted, so the whole file is never held in memory as a string.
    *
    * @param _outputFileName (String) - an absolute file name for the alloy output file to be written
    *     as
    * @param _parameterFields (Set<Field>) - a set of Fields. used to determine fields to be disj
    *     constraint (parameter fields are not disj)
-   * @throws FileNotFoundException - happens when the outputFileName is failed to be created (not
-   *     exist, not writable etc...)
+   * @throws IOException - happens when the outputFileName is failed to be created (not exist, not
+   *     writable etc...) or written
    */
   protected void toFile(String _outputFileName, Set<Sig.Field> _parameterFields)
-      throws FileNotFoundException {
+      throws IOException {
+    try (Writer out =
+        new BufferedWriter(
+            new OutputStreamWriter(
+                new FileOutputStream(_outputFileName), StandardCharsets.UTF_8))) {
+      write(out, _parameterFields);
+    }
+  }
 
-    ExprVisitor exprVisitor = new ExprVisitor(_parameterFields);
+  /**
+   * Write all Signatures and Facts as an alloy module to the given sink (i.e., a StringBuilder or a
+   * Writer). The text is the same as the file written by toFile. Only facts quantified over one of
+   * the signatures are written, each after its signature; other facts are not written.
+   *
+   * @param _out (Appendable) - the sink the module is written to. Not closed by this method.
+   * @param _parameterFields (Set<Field>) - a set of Fields. used to determine fields to be disj
+   *     constraint (parameter fields are not disj)
+   * @throws IOException - failed to write to the sink
+   */
+  protected void write(Appendable _out, Set<Sig.Field> _parameterFields) throws IOException {
 
-    StringBuilder sb = new StringBuilder();
+    ExprVisitor exprVisitor = new ExprVisitor(_parameterFields);
+    List<Sig> sortedSigs = new ArrayList<>(this.allSigs);
+    sortedSigs.sort(Comparator.comparing(sig -> sig.label));
 
-    sb.append("// This file is created with NIST OBM to Alloy Translator.\n\n")
+    _out.append("// This file is created with NIST OBM to Alloy Translator.\n\n")
         .append("module ")
         .append(moduleName)
         .append('\n')
@@ -206,106 +259,42 @@ public class Alloy {
         .append("open utilities/types/relation as r\n")
         .append("abstract sig Occurrence {}\n\n");
 
-    Map<String, String> sigsByLabel = new HashMap<>();
-    for (Sig sig : this.allSigs) {
+    for (Sig sig : sortedSigs) {
       exprVisitor.isRootSig = true;
-      sigsByLabel.put(sig.label, exprVisitor.visit(sig));
+      _out.append(exprVisitor.visit(sig)); // sig A extends Occurrence { p1: set B }
+      writeFacts(factsBySig.get(sig), exprVisitor, _out); // fact {all x: A | ...}
     }
-
-    String s = exprVisitor.visitThis(this.allFacts);
-    String formats = format(s, sigsByLabel);
-    sb.append(formats);
-
-    PrintWriter pw = new PrintWriter(_outputFileName);
-    pw.println(sb.toString());
-    pw.close();
+    _out.append('\n');
   }
 
   /**
-   * Format this alloy object (Signatures/Fields and Facts) to string by grouping Signature/Fields
-   * and Facts for the Signature together.
+   * Get the signature the given fact is for (i.e., A for "all x: A | no x.steps").
    *
-   * @param _factListInString (String) - all facts in string
-   * @param _signatureBlockBySignature (Map: key = Signature name string, value: Signature and
-   *     fields as written in the alloy file) - signature and its fields
-   * @return (String) - A Module, Signatures, Fields, and Facts grouped by Signature in string
+   * @param _fact (Expr) - a fact
+   * @return (Sig) - the signature of the fact's quantifier or null if the fact is not quantified
+   *     over a signature
    */
-  private static String format(
-      String _factListInString, Map<String, String> _signatureBlockBySignature) {
-
-    Map<String, List<String>> facts = new HashMap<>();
-    String[] factlines = _factListInString.split("\n");
-    for (int i = 0; i < factlines.length; i++) {
-      String factline = factlines[i];
-      // separate factline into [signature, fact]
-      // (ie., for " fact {all x: MultipleControlFlow | no y: Transfer | y in x.steps}" to ["fact
-      // {all x: MultipleControlFlow", "no y: Transfer", "y in x.steps"]
-      String[] domainAndFacts = factline.split("\\|");
-
-      if (facts.containsKey(
-          domainAndFacts[0])) { // to identify Signature "fact {all x: AtomicBehavior"
-        List<String> existingFacts = facts.get(domainAndFacts[0]);
-        existingFacts.add(getFactBody(domainAndFacts));
-        facts.put(domainAndFacts[0], existingFacts);
-      } else {
-        List<String> newFacts = new ArrayList<String>();
-        newFacts.add(getFactBody(domainAndFacts));
-        // key = fact {all x: OFServe, value = [,,,]
-        facts.put(domainAndFacts[0], newFacts);
-      }
-    }
-    String newS = "";
-    List<String> sigNames = new ArrayList<>(_signatureBlockBySignature.keySet());
-    Collections.sort(sigNames);
-    for (String sigName : sigNames) {
-      newS +=
-          _signatureBlockBySignature.get(
-              sigName); // sig AllControl extends Occurrence { disj p1, p2, p3, p4, p5, p6, p7: set
-      // AtomicBehavior}
-      newS += getFacts(sigName, facts); // fact {...}\n fact {...}\n
-    }
-    return newS;
-  }
-
-  /**
-   * Return fact body without the Signature portion from string array separated by "|". For example,
-   * when String[] _domainAndFacts for a fact "fact {all x: MultipleControlFlow | no y: Transfer | y
-   * in x.steps}" is ["fact {all x: MultipleControlFlow", "no y: Transfer", "y in x.steps"], this
-   * methods return _domainAndFacts's index of 1 or more separated by "|": "no y: Transfer | y in
-   * x.steps".
-   *
-   * @param _domainAndFacts (String[]) - string array for a fact expression separate by "|".
-   * @return (String) - the fact body in string
-   */
-  private static String getFactBody(String[] _domainAndFacts) {
-    String s = _domainAndFacts[1];
-    for (int i = 2; i < _domainAndFacts.length; i++) {
-      s += "|" + _domainAndFacts[i];
-    }
-    return s;
+  static Sig getFactSig(Expr _fact) {
+    Expr fact = _fact.deNOP();
+    if (!(fact instanceof ExprQt) || ((ExprQt) fact).decls.isEmpty()) return null;
+    Expr type = ((ExprQt) fact).decls.get(0).expr.deNOP();
+    while (type instanceof ExprUnary) type = ((ExprUnary) type).sub.deNOP(); // one A
+    return type instanceof Sig ? (Sig) type : null;
   }
 
   /**
-   * Return string facts (separated by "\n") for the given Signature name string (i.e., "fact {all
-   * x: A | #(x.vout) = 1}\nfact {all x: A | no (items.x)}...")
+   * Write the given facts to the given sink, one fact per line.
    *
-   * @param sigName (String) - Signature name string
-   * @param _facts (Map: key = Signature name string, value = facts for the signature) - facts per
-   *     signature name
-   * @return (String) - facts in string for the given Signature
+   * @param _facts (List<Expr>) - facts to be written. nothing is written if null.
+   * @param _exprVisitor (ExprVisitor) - the visitor formatting facts
+   * @param _out (Appendable) - the sink to write to
+   * @throws IOException - failed to write
    */
-  private static String getFacts(String _sigName, Map<String, List<String>> _facts) {
-    String newS = "";
-    // ie., fact key = "fact {all x: AtomicBehavior" => key = "AutomaticBehavior"
-    Optional<String> key =
-        _facts.keySet().stream()
-            .filter(akey -> akey.split(":")[1].trim().equals(_sigName))
-            .findFirst();
-    if (key.isPresent()) {
-      for (String fact : _facts.get(key.get())) {
-        newS += key.get() + "|" + fact + "\n";
-      }
+  private static void writeFacts(List<Expr> _facts, ExprVisitor _exprVisitor, Appendable _out)
+      throws IOException {
+    if (_facts == null) return;
+    for (Expr fact : _facts) {
+      _out.append(_exprVisitor.visitFact(fact)).append('\n');
     }
-    return newS;
   }
 }
@@ -14,12 +14,29 @@ import java.util.List;
 import java.util.Set;
 
 /**
- * A utility class to create Alloy expression
+ * A utility class to create Alloy expression using functions and signatures of the supporting
+ * libraries.
  *
  * @author Miyako Wilson, AE(ASDL) - Georgia Tech
  */
 public class AlloyExprFactory {
 
+  /** The supporting libraries providing functions and signatures for expressions */
+  private final AlloyLibrary library;
+  /** The index to find fields of signatures */
+  private final FieldIndex fieldIndex;
+
+  /**
+   * A constructor
+   *
+   * @param _library (AlloyLibrary) - the supporting libraries used to create expressions
+   * @param _fieldIndex (FieldIndex) - the index to find fields of signatures
+   */
+  protected AlloyExprFactory(AlloyLibrary _library, FieldIndex _fieldIndex) {
+    this.library = _library;
+    this.fieldIndex = _fieldIndex;
+  }
+
   /**
    * Create BijectionFiltered, isBeforeTraget and/or isAfterSource expression and combined with all
    * x: OwnerSig (ie., {all x: OwnerSig | bijectionFiltered[..., ..., ...]})
@@ -31,7 +48,7 @@ public class AlloyExprFactory {
    * @return (Set<Expr>) - one or two expression ([bijection], [bijection, isBeforetarget] or
    *     [bijection, isAfterSource])
    */
-  protected static Set<Expr> exprs_bijectionFilteredFactsForSig(
+  protected Set<Expr> exprs_bijectionFilteredFactsForSig(
       Sig _ownerSig, Expr _from, Expr _to, Func _func) {
 
     Set<Expr> facts = new HashSet<>();
@@ -43,17 +60,17 @@ public class AlloyExprFactory {
     if (_to == null) { // not to field but to itself (sig x)
       // fact {all x: B | bijectionFiltered[targets, x.transferB2B, x]}
       toExpr = varX;
-      if (_func == Alloy.sources) { // {fact {all x: B | isBeforeTarget[x.transferBB1]}
-        facts.add(Alloy.isBeforeTarget.call(fromExpr));
-      } else if (_func == Alloy.targets) { // fact {all x: B | isAfterSource[x.transferB2B]}
-        facts.add(Alloy.isAfterSource.call(fromExpr));
+      if (_func == library.sources) { // {fact {all x: B | isBeforeTarget[x.transferBB1]}
+        facts.add(library.isBeforeTarget.call(fromExpr));
+      } else if (_func == library.targets) { // fact {all x: B | isAfterSource[x.transferB2B]}
+        facts.add(library.isAfterSource.call(fromExpr));
       }
     } else {
       // fact {all x: MultipleObjectFlow | bijectionFiltered[outputs, x.p1, x.p1.i]}
       toExpr = AlloyUtils.addExprVarToExpr(_to, varX);
     }
 
-    Expr bijFilteredFn = Alloy.bijectionFiltered.call(_func.call(), fromExpr, toExpr);
+    Expr bijFilteredFn = library.bijectionFiltered.call(_func.call(), fromExpr, toExpr);
     facts.add(bijFilteredFn);
 
     return AlloyUtils.toSigAllFacts(_ownerSig, facts);
@@ -73,12 +90,11 @@ public class AlloyExprFactory {
    * @param _to (Expr) - the 3rd argument of functionFiltered function
    * @return (Expr) - created the inverseFunctionFiltered expression
    */
-  protected static Expr expr_functionFilteredHappensBeforeForSig(
-      Sig _ownerSig, Expr _from, Expr _to) {
+  protected Expr expr_functionFilteredHappensBeforeForSig(Sig _ownerSig, Expr _from, Expr _to) {
     ExprVar varX = makeVarX(_ownerSig);
     Expr funcFilteredExpr =
-        Alloy.functionFiltered.call(
-            Alloy.happensBefore.call(),
+        library.functionFiltered.call(
+            library.happensBefore.call(),
             AlloyUtils.addExprVarToExpr(_from, varX),
             AlloyUtils.addExprVarToExpr(_to, varX));
     return funcFilteredExpr.forAll(makeDecl(_ownerSig, varX));
@@ -99,12 +115,11 @@ public class AlloyExprFactory {
    * @param _to (Expr) - the 3rd argument of functionFiltered function
    * @return (Expr) - created the inverseFunctionFiltered expr
    */
-  protected static Expr expr_inverseFunctionFilteredHappensBefore(
-      Sig _ownerSig, Expr _from, Expr _to) {
+  protected Expr expr_inverseFunctionFilteredHappensBefore(Sig _ownerSig, Expr _from, Expr _to) {
     ExprVar varX = makeVarX(_ownerSig);
     Expr inverseFunctionFilteredExpr =
-        Alloy.inverseFunctionFiltered.call(
-            Alloy.happensBefore.call(),
+        library.inverseFunctionFiltered.call(
+            library.happensBefore.call(),
             AlloyUtils.addExprVarToExpr(_from, varX),
             AlloyUtils.addExprVarToExpr(_to, varX));
     return inverseFunctionFilteredExpr.forAll(makeDecl(_ownerSig, varX));
@@ -124,14 +139,15 @@ public class AlloyExprFactory {
    * @param _transferExpr (Expr) - the transfer expression
    * @return (Expr) - returning expression
    */
-  protected static Expr exprs_subSettingItemRule(Sig _ownerSig, Expr _transferExpr) {
+  protected Expr exprs_subSettingItemRule(Sig _ownerSig, Expr _transferExpr) {
     // Set<Expr> facts = new HashSet<>();
     ExprVar varX = makeVarX(_ownerSig);
     Decl decl = makeDecl(_ownerSig, varX);
-    return Alloy.subsettingItemRuleForSources
+    return library
+        .subsettingItemRuleForSources
         .call(varX.join(_transferExpr))
         .forAll(decl)
-        .and(Alloy.subsettingItemRuleForTargets.call(varX.join(_transferExpr)).forAll(decl));
+        .and(library.subsettingItemRuleForTargets.call(varX.join(_transferExpr)).forAll(decl));
   }
 
   /**
@@ -149,11 +165,11 @@ public class AlloyExprFactory {
    * @return (Set<Expr>) - the isAfterSource and isBeforeTarget Expressions for the given transfer
    *     expression for the given signature
    */
-  protected static Set<Expr> exprs_isAfterSourceIsBeforeTarget(Sig _ownerSig, Expr _transferExpr) {
+  protected Set<Expr> exprs_isAfterSourceIsBeforeTarget(Sig _ownerSig, Expr _transferExpr) {
     Set<Expr> factsAdded = new HashSet<>();
     ExprVar varX = makeVarX(_ownerSig);
-    factsAdded.add(Alloy.isAfterSource.call(varX.join(_transferExpr)));
-    factsAdded.add(Alloy.isBeforeTarget.call(varX.join(_transferExpr)));
+    factsAdded.add(library.isAfterSource.call(varX.join(_transferExpr)));
+    factsAdded.add(library.isBeforeTarget.call(varX.join(_transferExpr)));
     return factsAdded;
   }
 
@@ -179,7 +195,7 @@ public class AlloyExprFactory {
    *     sourceOutputProperties and when _func is o/target, then targetInputProperty
    * @return (Set<Expr>) - the two expressions to return
    */
-  protected static Set<Expr> exprs_transferInItems(
+  protected Set<Expr> exprs_transferInItems(
       Sig _ownerSig,
       Expr _transferExpr,
       Func _func,
@@ -200,11 +216,11 @@ public class AlloyExprFactory {
 
     // x.transferOrderPay.items in
     // x.transferOrderPay.sources.orderedFoodItem + x.transferOrderPay.sources.orderAmount
-    all_r = varX.join(_transferExpr).join(Alloy.oitems.call()).in(all);
+    all_r = varX.join(_transferExpr).join(library.oitems.call()).in(all);
 
     // x.transferOrderPay.sources.orderedFoodItem + x.transferOrderPay.sources.orderAmount in
     // x.transferOrderPay.items
-    all = all.in(varX.join(_transferExpr).join(Alloy.oitems.call()));
+    all = all.in(varX.join(_transferExpr).join(library.oitems.call()));
 
     return new HashSet<>(Arrays.asList(all, all_r));
   }
@@ -218,7 +234,7 @@ public class AlloyExprFactory {
    * @param _number (int) - equal to number
    * @return (Expr) - the created expression
    */
-  protected static Expr expr_cardinalityEqual(Sig _ownerSig, Sig.Field _field, int _number) {
+  protected Expr expr_cardinalityEqual(Sig _ownerSig, Sig.Field _field, int _number) {
     ExprVar varX = makeVarX(_ownerSig);
     return varX.join(_field)
         .cardinality()
@@ -234,8 +250,7 @@ public class AlloyExprFactory {
    * @param _number (int) - greater than equal to number
    * @return (Expr) - the created expression
    */
-  protected static Expr expr_cardinalityGreaterThanEqual(
-      Sig _ownerSig, Sig.Field _field, int _number) {
+  protected Expr expr_cardinalityGreaterThanEqual(Sig _ownerSig, Sig.Field _field, int _number) {
     ExprVar varX = makeVarX(_ownerSig);
     return varX.join(_field)
         .cardinality()
@@ -251,7 +266,7 @@ public class AlloyExprFactory {
    * @param _field2 (Field) - one of field in the owner signature to define equal to
    * @return (Expr) - the created expression
    */
-  protected static Expr expr_equal(Sig _ownerSig, Sig.Field _field1, Sig.Field _field2) {
+  protected Expr expr_equal(Sig _ownerSig, Sig.Field _field1, Sig.Field _field2) {
     ExprVar varX = makeVarX(_ownerSig);
     return varX.join(_field1).equal(varX.join(_field2)).forAll(makeDecl(_ownerSig, varX));
   }
@@ -267,17 +282,17 @@ public class AlloyExprFactory {
    * @param _ownerSig (PrimSig) - the owner signature
    * @param _sortedFields (List<Field>) - the fields of the owner signature alphabetically sorted by
    *     their labels
-   * @param _inOrOutFunc (Func) - Alloy.oinputs or Alloy.ooutput function
+   * @param _inOrOutFunc (Func) - library.oinputs or library.ooutput function
    * @return (Set<Expr>) - the created two expressions
    */
-  protected static Set<Expr> exprs_in(
+  protected Set<Expr> exprs_in(
       PrimSig _ownerSig, List<Sig.Field> _sortedFields, Func _inOrOutFunc) {
     ExprVar varX = makeVarX(_ownerSig);
     Decl decl = makeDecl(_ownerSig, varX);
     Expr fieldsExpr = null;
     for (Field field : _sortedFields) {
       // sig.domain(field) or sig.parent.domain(sig.parent.field)
-      Expr sigDomainField = AlloyUtils.getFieldAsExprFromSigOrItsParents(field.label, _ownerSig);
+      Expr sigDomainField = fieldIndex.getFieldFromSigOrParents(field.label, _ownerSig);
       if (sigDomainField != null)
         fieldsExpr =
             fieldsExpr == null
@@ -307,10 +322,10 @@ public class AlloyExprFactory {
    *     signature
    * @param _fieldsOfField (List<Field>) - a field type signature fields (i.e., prepareFoodItem and
    *     prepareDestination are for prepare field type of Prepare signature).
-   * @param _inOrOutFunc (Func) - Alloy.oinputs or Alloy.ooutputs function
+   * @param _inOrOutFunc (Func) - library.oinputs or library.ooutputs function
    * @return (Expr) - the created expression
    */
-  protected static Expr expr_inOutClosure(
+  protected Expr expr_inOutClosure(
       PrimSig _ownerSig, Field _fieldOwner, List<Sig.Field> _fieldsOfField, Func _inOrOutFunc) {
     ExprVar varX = makeVarX(_ownerSig);
     Expr fieldsExpr = null;
@@ -343,8 +358,8 @@ public class AlloyExprFactory {
    * @param _sig (Sig) - the owner signature of the creating expression
    * @return (Expr) - the created expression
    */
-  protected static Expr expr_noOutputsX(Sig _sig) {
-    return expr_noFuncX(_sig, Alloy.ooutputs);
+  protected Expr expr_noOutputsX(Sig _sig) {
+    return expr_noFuncX(_sig, library.ooutputs);
   }
 
   /**
@@ -353,8 +368,8 @@ public class AlloyExprFactory {
    * @param _sig (Sig) - the owner signature of the creating expression
    * @return (Expr) - the created expression
    */
-  protected static Expr expr_noInputsX(Sig _sig) {
-    return expr_noFuncX(_sig, Alloy.oinputs);
+  protected Expr expr_noInputsX(Sig _sig) {
+    return expr_noFuncX(_sig, library.oinputs);
   }
 
   /**
@@ -363,8 +378,8 @@ public class AlloyExprFactory {
    * @param _sig (Sig) - the owner signature of the creating expression
    * @return (Expr) - the created expression
    */
-  protected static Expr expr_noStepsX(Sig _sig) {
-    return expr_noFuncX(_sig, Alloy.osteps);
+  protected Expr expr_noStepsX(Sig _sig) {
+    return expr_noFuncX(_sig, library.osteps);
   }
 
   /**
@@ -373,8 +388,8 @@ public class AlloyExprFactory {
    * @param _sig (Sig) - the owner signature of the creating expression
    * @return (Expr) - the created expression
    */
-  protected static Expr expr_noXSteps(Sig _sig) {
-    return expr_noXFunc(_sig, Alloy.osteps);
+  protected Expr expr_noXSteps(Sig _sig) {
+    return expr_noXFunc(_sig, library.osteps);
   }
 
   /**
@@ -395,8 +410,8 @@ public class AlloyExprFactory {
    * @param _sig (Sig) - the owner signature of the creating expression
    * @return (Expr) - the created expression
    */
-  protected static Expr expr_noXInputs(Sig _sig) {
-    return expr_noXFunc(_sig, Alloy.oinputs);
+  protected Expr expr_noXInputs(Sig _sig) {
+    return expr_noXFunc(_sig, library.oinputs);
   }
 
   /**
@@ -405,8 +420,8 @@ public class AlloyExprFactory {
    * @param _sig (Sig) - the owner signature of the creating expression
    * @return (Expr) - the created expression
    */
-  protected static Expr expr_noXOutputs(Sig _sig) {
-    return expr_noXFunc(_sig, Alloy.ooutputs);
+  protected Expr expr_noXOutputs(Sig _sig) {
+    return expr_noXFunc(_sig, library.ooutputs);
   }
 
   /**
@@ -416,8 +431,8 @@ public class AlloyExprFactory {
    * @param _sig (Sig) - the owner signature of the creating expression
    * @return (Expr) - the two created expression
    */
-  protected static Expr exprs_noInputsXAndXInputs(Sig _sig) {
-    return exprs_noFuncXAndnoXFunc(_sig, Alloy.oinputs);
+  protected Expr exprs_noInputsXAndXInputs(Sig _sig) {
+    return exprs_noFuncXAndnoXFunc(_sig, library.oinputs);
   }
 
   /**
@@ -427,8 +442,8 @@ public class AlloyExprFactory {
    * @param _sig (Sig) - the owner signature of the creating expression
    * @return (Expr) - the two created expression connected with and
    */
-  protected static Expr exprs_noOutputsXAndXOutputs(Sig _sig) {
-    return exprs_noFuncXAndnoXFunc(_sig, Alloy.ooutputs);
+  protected Expr exprs_noOutputsXAndXOutputs(Sig _sig) {
+    return exprs_noFuncXAndnoXFunc(_sig, library.ooutputs);
   }
 
   /**
@@ -439,7 +454,7 @@ public class AlloyExprFactory {
    * @param _func (Func) - function for the expression
    * @return (Expr) - the two created expression connected with and
    */
-  protected static Expr exprs_noFuncXAndnoXFunc(Sig _sig, Func _func) {
+  protected Expr exprs_noFuncXAndnoXFunc(Sig _sig, Func _func) {
     ExprVar var = makeVarX(_sig);
     Decl decl = makeDecl(_sig, var);
     return ((_func.call().join(var).no())
@@ -453,8 +468,8 @@ public class AlloyExprFactory {
    * @param _sig (Sig) - the owner signature of the creating expression
    * @return (Expr) - the created expression
    */
-  protected static Expr expr_noItemsX(Sig _sig) {
-    return expr_noFuncX(_sig, Alloy.oitems);
+  protected Expr expr_noItemsX(Sig _sig) {
+    return expr_noFuncX(_sig, library.oitems);
   }
 
   /**
@@ -463,10 +478,10 @@ public class AlloyExprFactory {
    *
    * @param _sig (Sig) - the owner signature of the creating expression
    * @param _field (Field) - the field to be defined as inputs or outputs
-   * @param _inputsOrOutputs (Func) - Alloy.oinputs or Alloy.ooutputs Function
+   * @param _inputsOrOutputs (Func) - library.oinputs or library.ooutputs Function
    * @return (Expr) - the created expression
    */
-  protected static Expr expr_noInputsOrOutputsField(Sig _sig, Field _field, Func _inputsOrOutputs) {
+  protected Expr expr_noInputsOrOutputsField(Sig _sig, Field _field, Func _inputsOrOutputs) {
     ExprVar varX = makeVarX(_sig); // x: TheGivenSig
     Expr exprField = varX.join(_sig.domain(_field)); // x.p4
     return (exprField.join(_inputsOrOutputs.call()) /* x.p4.outputs */.no())
@@ -486,10 +501,10 @@ public class AlloyExprFactory {
    * @param _sigField (Field) - a field of sig(i.e., p1)
    * @param _fieldOfsigFieldType (Field) - a field (i.e., i) of sig field(i.e, p1)'s type
    *     (BehaviorWithParameter)
-   * @param _func (Func) - Alloy.oinputs or Alloy.ooutputs Function
+   * @param _func (Func) - library.oinputs or library.ooutputs Function
    * @return (Expr) - the created expressions (two expression connected with "and")
    */
-  protected static Expr exprs_inField(
+  protected Expr exprs_inField(
       Sig _sig, Sig.Field _sigField, Sig.Field _fieldOfsigFieldType, Func _func) {
 
     // all x: MultipleObjectFlow
@@ -515,15 +530,15 @@ public class AlloyExprFactory {
    * @param _sig (Sig) - the owner signature of the creating expression
    * @return (Expr) - the created expression
    */
-  protected static Expr expr_noTransferXSteps(Sig _sig) {
+  protected Expr expr_noTransferXSteps(Sig _sig) {
     ExprVar varX = makeVarX(_sig);
     Decl declX = makeDecl(_sig, varX);
 
-    ExprVar varY = ExprVar.make(null, "y", Alloy.transferSig.type());
-    Decl declY = new Decl(null, null, null, List.of(varY), Alloy.transferSig.oneOf());
+    ExprVar varY = ExprVar.make(null, "y", library.transferSig.type());
+    Decl declY = new Decl(null, null, null, List.of(varY), library.transferSig.oneOf());
 
     return ((varY)
-        .in(varX.join(Alloy.osteps.call()))
+        .in(varX.join(library.osteps.call()))
         .
         /* y in x.steps */ forNo(declY)
         .
@@ -550,11 +565,11 @@ public class AlloyExprFactory {
    *     {x.steps in ....} or {no steps.x}
    * @return (Set<Expr>) - the created expressions
    */
-  protected static Set<Expr> exprs_stepsFields(
+  protected Set<Expr> exprs_stepsFields(
       PrimSig _sig, Set<String> _stepFields, boolean _addInXSteps, boolean _addXStepsIn) {
     ExprVar varX = makeVarX(_sig);
     Decl decl = makeDecl(_sig, varX);
-    Expr ostepsExpr1 = Alloy.osteps.call();
+    Expr ostepsExpr1 = library.osteps.call();
 
     List<String> sortedFieldLabel = AlloyUtils.sort(_stepFields);
     ;
@@ -567,7 +582,7 @@ public class AlloyExprFactory {
       for (String fieldName : sortedFieldLabel) {
         // sig.domain(field) or sig.parent.domain(sig.parent.field)
         Expr sigDomainField =
-            AlloyUtils.getFieldAsExprFromSigOrItsParents(fieldName, _sig); // including inherited
+            fieldIndex.getFieldFromSigOrParents(fieldName, _sig); // including inherited
         // fields
         if (sigDomainField != null) {
           expr = expr == null ? varX.join(sigDomainField) : expr.plus(varX.join(sigDomainField));
@@ -591,7 +606,7 @@ public class AlloyExprFactory {
     if (_addInXSteps) { // for all sigs - own fields - not include redefined
       Expr expr = null;
       for (String fieldName : sortedFieldLabel) {
-        Expr sigDomainField = AlloyUtils.getFieldFromSig(fieldName, _sig);
+        Expr sigDomainField = fieldIndex.getField(fieldName, _sig);
         // only own fields
         if (sigDomainField != null) {
           expr = expr == null ? varX.join(sigDomainField) : expr.plus(varX.join(sigDomainField));
@@ -602,7 +617,7 @@ public class AlloyExprFactory {
       else if (_addXStepsIn) // if leaf sig, then addXStepsIn = true -> if sig has no own fields
         // then
         // add {no steps.x}
-        rFacts.add(AlloyExprFactory.expr_noStepsX(_sig));
+        rFacts.add(expr_noStepsX(_sig));
     }
     return rFacts;
   }
@@ -619,7 +634,7 @@ public class AlloyExprFactory {
    * @param _typeSig (Sig) - the type of field (i.e., OFCustomPrepare)
    * @return (Expr) - the created expression
    */
-  protected static Expr expr_redefinedSubsetting(Sig _sig, Field _field, Sig _typeSig) {
+  protected Expr expr_redefinedSubsetting(Sig _sig, Field _field, Sig _typeSig) {
     ExprVar varX = makeVarX(_sig);
     return varX.join(_field).in(_typeSig).forAll(makeDecl(_sig, varX));
   }
@@ -0,0 +1,184 @@
+package edu.gatech.gtri.obm.alloy.translator;
+
+import edu.mit.csail.sdg.ast.Attr;
+import edu.mit.csail.sdg.ast.Func;
+import edu.mit.csail.sdg.ast.Module;
+import edu.mit.csail.sdg.ast.Sig;
+import edu.mit.csail.sdg.ast.Sig.PrimSig;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Signatures and functions of the supporting libraries (Transfer.als and utilities/*.als) used by
+ * the translator. A library is loaded once per library path (or once from the classpath) and shared
+ * by all Alloy objects (and translators) in the JVM. Its fields are never changed after it is
+ * loaded. The library files are parsed from memory using AlloyModuleLoader.
+ *
+ * <p>Alloy records a signature as a child of its parent for as long as the parent exists. To not
+ * keep signatures of translations in a shared library, each translation creates its own Occurrence
+ * signature (see createOccurrenceSig) for its signatures to extend, and the shared library's
+ * Occurrence has only the library's signatures as its children.
+ *
+ * <p>A translation analyzed in memory (see TranslatedModule) needs its signatures to extend the
+ * Occurrence the Transfer module is instantiated with, so it uses a library loaded for the
+ * translation by loadForAnalysis.
+ */
+final class AlloyLibrary {
+
+  /** String used to load library into the templateModule that necessary for the translator. */
+  static final String templateString =
+      "open Transfer[Occurrence] as o \n" + "abstract sig Occurrence{}";
+  /** The file name the templateString is parsed as. Not exist in the library directory. */
+  private static final String TEMPLATE_FILE_NAME = "OBMTranslatorTemplate.als";
+  /** The key of the library loaded from the classpath in librariesByPath */
+  private static final String CLASSPATH_KEY = "classpath:";
+
+  /** Loaded libraries by canonical library path */
+  private static final Map<String, AlloyLibrary> librariesByPath = new ConcurrentHashMap<>();
+
+  /** true if loaded for a translation to be analyzed, false if shared */
+  private final boolean forAnalysis;
+  /** The loader providing the library files from memory */
+  final AlloyModuleLoader moduleLoader;
+
+  /** Module created from templateString */
+  final Module templateModule;
+  /** Module from the Transfer.als */
+  final Module transferModule;
+
+  /** Functions constructed from the transfer module */
+  final Func happensBefore;
+
+  final Func happensDuring;
+  final Func sources;
+  final Func targets;
+  final Func subsettingItemRuleForSources;
+  final Func subsettingItemRuleForTargets;
+  final Func isAfterSource;
+  final Func isBeforeTarget;
+  final Func bijectionFiltered;
+  final Func functionFiltered;
+  final Func inverseFunctionFiltered;
+  final Func osteps;
+  final Func oinputs;
+  final Func ooutputs;
+  final Func oitems;
+
+  /** Signatures constructed from the transfer module */
+  final Sig transferSig;
+
+  final Sig transferBeforeSig;
+  final PrimSig occSig; // default parent/super type of Signature
+
+  /**
+   * Return the library located at the given directory. The library is loaded only when it is not
+   * loaded yet.
+   *
+   * @param _libraryPath (String) - The directory containing Transfer.als and utilities(folder)
+   * @return (AlloyLibrary) - the library
+   */
+  static AlloyLibrary forPath(String _libraryPath) {
+    String key;
+    try {
+      key = new File(_libraryPath).getCanonicalPath();
+    } catch (IOException e) {
+      key = new File(_libraryPath).getAbsolutePath();
+    }
+    return librariesByPath.computeIfAbsent(
+        key,
+        k -> {
+          try {
+            return new AlloyLibrary(AlloyModuleLoader.fromDirectory(new File(k)), false);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+  }
+
+  /**
+   * Return the library in the classpath (Transfer.als and utilities/*.als in src/main/resources).
+   * The library is loaded only when it is not loaded yet.
+   *
+   * @return (AlloyLibrary) - the library
+   */
+  static AlloyLibrary fromClasspath() {
+    return librariesByPath.computeIfAbsent(
+        CLASSPATH_KEY,
+        k -> {
+          try {
+            return new AlloyLibrary(AlloyModuleLoader.fromClasspath(), false);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+  }
+
+  /**
+   * Load the library for a translation to be analyzed, not shared with other translations. The
+   * translated signatures extend the library's Occurrence, which the Transfer module is
+   * instantiated with, so the template is parsed again (from the library files in memory) for each
+   * translation analyzed.
+   *
+   * <p>The library is not cached for the next translation (i.e., one per translator): Alloy keeps
+   * the translated signatures as children of the Occurrence with no way to remove them, and the
+   * analysis bounds an abstract signature by all of its children, so the signatures of an earlier
+   * translation would be analyzed with the next one. The parse is measured against the translation
+   * and the solver by obmtest.TranslatedModuleBenchmark.
+   *
+   * @return (AlloyLibrary) - the newly loaded library
+   */
+  AlloyLibrary loadForAnalysis() {
+    return new AlloyLibrary(moduleLoader, true);
+  }
+
+  /**
+   * Load the library provided by the given loader.
+   *
+   * @param _moduleLoader (AlloyModuleLoader) - The loader providing the library files
+   * @param _forAnalysis (boolean) - true if loaded for a translation to be analyzed
+   */
+  private AlloyLibrary(AlloyModuleLoader _moduleLoader, boolean _forAnalysis) {
+    this.forAnalysis = _forAnalysis;
+    this.moduleLoader = _moduleLoader;
+    templateModule = _moduleLoader.parse(TEMPLATE_FILE_NAME, templateString);
+
+    // abstract
+    occSig = (PrimSig) AlloyUtils.getReachableSig("this/Occurrence", templateModule);
+    transferModule = AlloyUtils.getAllReachableModuleByName("TransferModule", templateModule);
+
+    happensBefore = AlloyUtils.getFunction("o/happensBefore", transferModule);
+    happensDuring = AlloyUtils.getFunction("o/happensDuring", transferModule);
+    bijectionFiltered = AlloyUtils.getFunction("o/bijectionFiltered", transferModule);
+    functionFiltered = AlloyUtils.getFunction("o/functionFiltered", transferModule);
+    inverseFunctionFiltered = AlloyUtils.getFunction("o/inverseFunctionFiltered", transferModule);
+    sources = AlloyUtils.getFunction("o/sources", transferModule);
+    targets = AlloyUtils.getFunction("o/targets", transferModule);
+    subsettingItemRuleForSources =
+        AlloyUtils.getFunction("o/subsettingItemRuleForSources", transferModule);
+    subsettingItemRuleForTargets =
+        AlloyUtils.getFunction("o/subsettingItemRuleForTargets", transferModule);
+    isAfterSource = AlloyUtils.getFunction("o/isAfterSource", transferModule);
+    isBeforeTarget = AlloyUtils.getFunction("o/isBeforeTarget", transferModule);
+    osteps = AlloyUtils.getFunction("o/steps", transferModule);
+    oinputs = AlloyUtils.getFunction("o/inputs", transferModule);
+    ooutputs = AlloyUtils.getFunction("o/outputs", transferModule);
+    oitems = AlloyUtils.getFunction("o/items", transferModule);
+    transferSig = AlloyUtils.getReachableSig("o/Transfer", transferModule);
+    transferBeforeSig = AlloyUtils.getReachableSig("o/TransferBefore", transferModule);
+  }
+
+  /**
+   * Return the Occurrence signature for the signatures of a translation to extend. For a shared
+   * library, a new top-level abstract signature labeled the same as the library's Occurrence, so
+   * the translated signatures are its children (garbage collected with the translation) instead of
+   * the shared library's. For a library loaded for analysis, the library's Occurrence.
+   *
+   * @return (PrimSig) - the Occurrence signature of a translation
+   */
+  PrimSig createOccurrenceSig() {
+    return forAnalysis ? occSig : new PrimSig(occSig.label, Attr.ABSTRACT);
+  }
+}
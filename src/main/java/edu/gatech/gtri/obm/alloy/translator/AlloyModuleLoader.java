@@ -0,0 +1,162 @@
+package edu.gatech.gtri.obm.alloy.translator;
+
+import edu.mit.csail.sdg.alloy4.A4Reporter;
+import edu.mit.csail.sdg.alloy4.Util;
+import edu.mit.csail.sdg.parser.CompModule;
+import edu.mit.csail.sdg.parser.CompUtil;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A loader providing the supporting libraries (Transfer.als and utilities/*.als) to Alloy's parser
+ * from memory. The library files are read once, either from the classpath (src/main/resources of
+ * the jar) or from a directory, and given to CompUtil as a map of file paths to their contents, so
+ * parsing does not need the files in java.io.tmpdir or next to the xmi file.
+ */
+final class AlloyModuleLoader {
+
+  /** The name of the Transfer library file */
+  static final String TRANSFER_FILE_NAME = "Transfer.als";
+  /** The name of the directory containing the utility library files */
+  static final String UTILITIES_DIRECTORY_NAME = "utilities";
+  /** The library files in the classpath */
+  static final List<String> CLASSPATH_LIBRARY_FILE_NAMES =
+      List.of(
+          TRANSFER_FILE_NAME,
+          "utilities/messaging/messaging.als",
+          "utilities/time/overlapping-ranges.als",
+          "utilities/trace/trace.als",
+          "utilities/types/boolean.als",
+          "utilities/types/graph.als",
+          "utilities/types/integer.als",
+          "utilities/types/natural.als",
+          "utilities/types/ordering.als",
+          "utilities/types/relation.als",
+          "utilities/types/seqrel.als",
+          "utilities/types/sequence.als",
+          "utilities/types/sequniv.als",
+          "utilities/types/ternary.als",
+          "utilities/types/time.als");
+
+  /**
+   * The directory the library files are in. For the classpath, a directory not expected to exist in
+   * the file system.
+   */
+  private final File root;
+  /** The contents of library files by their canonical file paths used by Alloy's parser */
+  private final Map<String, String> sourcesByPath;
+
+  /**
+   * A constructor
+   *
+   * @param _root (File) - the directory the library files are in
+   * @param _sourcesByName (Map<String, String>) - the contents of library files by their names
+   *     relative to _root (i.e., "utilities/types/relation.als")
+   */
+  private AlloyModuleLoader(File _root, Map<String, String> _sourcesByName) {
+    this.root = _root;
+    Map<String, String> sources = new LinkedHashMap<>();
+    for (Map.Entry<String, String> entry : _sourcesByName.entrySet())
+      sources.put(pathOf(entry.getKey()), entry.getValue());
+    this.sourcesByPath = Collections.unmodifiableMap(sources);
+  }
+
+  /**
+   * Create a loader for the library files in the classpath.
+   *
+   * @return (AlloyModuleLoader) - the created loader
+   * @throws IOException - a library file is not in the classpath or failed to be read
+   */
+  static AlloyModuleLoader fromClasspath() throws IOException {
+    Map<String, String> sourcesByName = new LinkedHashMap<>();
+    ClassLoader classLoader = AlloyModuleLoader.class.getClassLoader();
+    for (String name : CLASSPATH_LIBRARY_FILE_NAMES) {
+      try (InputStream in = classLoader.getResourceAsStream(name)) {
+        if (in == null) throw new FileNotFoundException(name + " is not in the classpath.");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        in.transferTo(out);
+        sourcesByName.put(name, out.toString(StandardCharsets.UTF_8));
+      }
+    }
+    return new AlloyModuleLoader(
+        new File(System.getProperty("java.io.tmpdir"), "obm-alloy-library"), sourcesByName);
+  }
+
+  /**
+   * Create a loader for the library files (Transfer.als and utilities/**.als) in the given
+   * directory.
+   *
+   * @param _directory (File) - the directory containing Transfer.als and utilities(folder)
+   * @return (AlloyModuleLoader) - the created loader
+   * @throws IOException - Transfer.als does not exist or a library file failed to be read
+   */
+  static AlloyModuleLoader fromDirectory(File _directory) throws IOException {
+    Map<String, String> sourcesByName = new LinkedHashMap<>();
+    Path root = _directory.toPath();
+    sourcesByName.put(
+        TRANSFER_FILE_NAME,
+        new String(Files.readAllBytes(root.resolve(TRANSFER_FILE_NAME)), StandardCharsets.UTF_8));
+    Path utilities = root.resolve(UTILITIES_DIRECTORY_NAME);
+    if (Files.isDirectory(utilities)) {
+      List<Path> files;
+      try (Stream<Path> walk = Files.walk(utilities)) {
+        files =
+            walk.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".als"))
+                .sorted()
+                .collect(Collectors.toList());
+      }
+      for (Path file : files)
+        sourcesByName.put(
+            root.relativize(file).toString(),
+            new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+    return new AlloyModuleLoader(_directory, sourcesByName);
+  }
+
+  /**
+   * Get the canonical file path used by Alloy's parser for the given file name relative to the
+   * library directory.
+   *
+   * @param _name (String) - a file name relative to the library directory (i.e., "Transfer.als")
+   * @return (String) - the canonical file path
+   */
+  String pathOf(String _name) {
+    return Util.canon(new File(root, _name).getPath());
+  }
+
+  /**
+   * Get the contents of the library files by their canonical file paths.
+   *
+   * @return (Map<String, String>) - an unmodifiable map of the contents by file paths
+   */
+  Map<String, String> getSources() {
+    return this.sourcesByPath;
+  }
+
+  /**
+   * Parse the given alloy content as if it is a file with the given name in the library directory.
+   * Modules opened from the content (i.e., "open Transfer[Occurrence] as o") are read from memory.
+   *
+   * @param _name (String) - the file name of the content relative to the library directory
+   * @param _content (String) - alloy content to be parsed
+   * @return (CompModule) - the parsed module
+   */
+  CompModule parse(String _name, String _content) {
+    Map<String, String> loaded = new LinkedHashMap<>(this.sourcesByPath);
+    String path = pathOf(_name);
+    loaded.put(path, _content);
+    return CompUtil.parseEverything_fromFile(new A4Reporter(), loaded, path);
+  }
+}
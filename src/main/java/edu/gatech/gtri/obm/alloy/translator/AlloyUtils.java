@@ -12,7 +12,6 @@ import edu.mit.csail.sdg.ast.Sig.Field;
 import edu.mit.csail.sdg.ast.Sig.PrimSig;
 import edu.mit.csail.sdg.parser.CompModule;
 import edu.mit.csail.sdg.parser.CompUtil;
-import edu.umd.omgutil.sysml.sysml1.SysMLAdapter;
 import edu.umd.omgutil.uml.OpaqueExpression;
 import java.io.File;
 import java.util.ArrayList;
@@ -68,10 +67,11 @@ public class AlloyUtils {
    *
    * @param _fieldLabel (String) - the field name to be created in the given _ownerSig
    * @param _ownerSig (Sig) - the owner of a field to be created
+   * @param _transferSig (Sig) - the Transfer signature of the supporting libraries
    * @return (Field) - the created field
    */
-  protected static Field addTransferField(String _fieldLabel, Sig _ownerSig) {
-    return addField(_fieldLabel, _ownerSig, Alloy.transferSig);
+  protected static Field addTransferField(String _fieldLabel, Sig _ownerSig, Sig _transferSig) {
+    return addField(_fieldLabel, _ownerSig, _transferSig);
   }
 
   /**
@@ -404,11 +404,11 @@ public class AlloyUtils {
    * This method finds the <code>ConnectorEnd/Element</code> list for each given <code>Constraint</code> and then return as a <code>Set</code>.
    *
    * @param _constraints (Set<Constraint>) - a set of constraints may have the "OneOf" constraint.
-   * @param __sysmladapter (SysMLAdapter) - the omgutil's helper class for finding the necessary information for this method.
+   * @param _sysmladapter (CachedSysMLAdapter) - the omgutil's helper class for finding the necessary information for this method.
    * @return (Set<EList<Element>>) - a set of the list of <code>ConnectorEnds/Elements</code>.
    */
   protected static Set<EList<Element>> getOneOfRules(
-      Set<Constraint> _constraints, SysMLAdapter _sysmladapter) {
+      Set<Constraint> _constraints, CachedSysMLAdapter _sysmladapter) {
     Set<EList<Element>> oneOfSet = new HashSet<>();
     for (Constraint c : _constraints) {
       ValueSpecification vs = c.getSpecification();
@@ -0,0 +1,126 @@
+package edu.gatech.gtri.obm.alloy.translator;
+
+import edu.umd.omgutil.sysml.sysml1.SysMLAdapter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.eclipse.uml2.uml.ConnectorEnd;
+import org.eclipse.uml2.uml.Element;
+
+/**
+ * omgutil's SysMLAdapter remembering the omgutil objects mapped from UML2 elements and the
+ * corrected feature path names of connector ends. Connectors of a parent class are mapped again for
+ * each child class and for each class translated with the same adapter, so each element is mapped
+ * once per adapter.
+ *
+ * <p>Elements are keyed by identity (UML2 elements do not override equals/hashCode). The numbers of
+ * hits and misses are counted in a Statistics shared by all adapters of a loaded xmi file. The
+ * adapter may be used by concurrent threads: omgutil is called by one thread at a time while
+ * remembered results are returned without waiting.
+ */
+final class CachedSysMLAdapter {
+
+  /** The numbers of hits and misses of CachedSysMLAdapters */
+  static final class Statistics {
+    final AtomicLong mapObjectHits = new AtomicLong();
+    final AtomicLong mapObjectMisses = new AtomicLong();
+    final AtomicLong featurePathHits = new AtomicLong();
+    final AtomicLong featurePathMisses = new AtomicLong();
+
+    @Override
+    public String toString() {
+      return "mapObject: "
+          + mapObjectHits.get()
+          + " hits, "
+          + mapObjectMisses.get()
+          + " misses; featurePath: "
+          + featurePathHits.get()
+          + " hits, "
+          + featurePathMisses.get()
+          + " misses";
+    }
+  }
+
+  /** The feature path names of a connector end for an owner */
+  private static final class FeaturePath {
+    final edu.umd.omgutil.uml.Type owner;
+    final List<String> names;
+
+    FeaturePath(edu.umd.omgutil.uml.Type _owner, List<String> _names) {
+      this.owner = _owner;
+      this.names = _names;
+    }
+  }
+
+  /** omgutil SysMLAdapter mapping elements not mapped yet */
+  private final SysMLAdapter sysMLAdapter;
+  /** the counts of hits and misses */
+  private final Statistics statistics;
+  /** omgutil objects by UML2 elements */
+  private final Map<Element, edu.umd.omgutil.uml.Element> mappedObjects = new ConcurrentHashMap<>();
+  /** feature path names by connector ends */
+  private final Map<ConnectorEnd, FeaturePath> featurePaths = new ConcurrentHashMap<>();
+
+  /**
+   * A constructor
+   *
+   * @param _sysMLAdapter (SysMLAdapter) - omgutil SysMLAdapter of the loaded xmi file
+   * @param _statistics (Statistics) - the counts of hits and misses to be updated
+   */
+  CachedSysMLAdapter(SysMLAdapter _sysMLAdapter, Statistics _statistics) {
+    this.sysMLAdapter = _sysMLAdapter;
+    this.statistics = _statistics;
+  }
+
+  /**
+   * Get the omgutil object of the given UML2 element.
+   *
+   * @param _element (Element) - a UML2 element
+   * @return (edu.umd.omgutil.uml.Element) - the omgutil object
+   */
+  edu.umd.omgutil.uml.Element mapObject(Element _element) {
+    edu.umd.omgutil.uml.Element omgE = mappedObjects.get(_element);
+    if (omgE != null) {
+      statistics.mapObjectHits.incrementAndGet();
+      return omgE;
+    }
+    statistics.mapObjectMisses.incrementAndGet();
+    synchronized (sysMLAdapter) {
+      omgE = sysMLAdapter.mapObject(_element);
+    }
+    if (omgE == null) return null;
+    edu.umd.omgutil.uml.Element existing = mappedObjects.putIfAbsent(_element, omgE);
+    return existing != null ? existing : omgE;
+  }
+
+  /**
+   * Get the names of the features in the corrected feature path of the given connector end from the
+   * given owner (the featuring type of the end's connector).
+   *
+   * @param _end (ConnectorEnd) - a connector end
+   * @param _owner (edu.umd.omgutil.uml.Type) - the featuring type of the end's connector
+   * @return (List<String>) - an unmodifiable list of feature names
+   */
+  List<String> getCorrectedFeaturePathNames(ConnectorEnd _end, edu.umd.omgutil.uml.Type _owner) {
+    FeaturePath featurePath = featurePaths.get(_end);
+    if (featurePath != null && featurePath.owner == _owner) {
+      statistics.featurePathHits.incrementAndGet();
+      return featurePath.names;
+    }
+    statistics.featurePathMisses.incrementAndGet();
+    edu.umd.omgutil.uml.ConnectorEnd end = (edu.umd.omgutil.uml.ConnectorEnd) mapObject(_end);
+    List<String> names;
+    synchronized (sysMLAdapter) {
+      names =
+          Collections.unmodifiableList(
+              end.getCorrectedFeaturePath(_owner).stream()
+                  .map(f -> f.getName())
+                  .collect(Collectors.toList()));
+    }
+    if (featurePath == null) featurePaths.putIfAbsent(_end, new FeaturePath(_owner, names));
+    return names;
+  }
+}
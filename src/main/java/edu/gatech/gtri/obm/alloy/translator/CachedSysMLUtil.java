@@ -0,0 +1,117 @@
+package edu.gatech.gtri.obm.alloy.translator;
+
+import edu.umd.omgutil.sysml.sysml1.SysMLUtil;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.eclipse.uml2.uml.Class;
+import org.eclipse.uml2.uml.Classifier;
+import org.eclipse.uml2.uml.Connector;
+import org.eclipse.uml2.uml.Constraint;
+import org.eclipse.uml2.uml.Property;
+
+/**
+ * omgutil's SysMLUtil model queries remembering their results per class. The same classes are
+ * queried many times during a translation (i.e., a class being a parent in the hierarchy and a
+ * property type) and across translations of the loaded xmi file, so each query runs once per class.
+ *
+ * <p>Classes are keyed by identity (UML2 elements do not override equals/hashCode). An instance is
+ * created for each loaded xmi file, so results are discarded when a xmi file is loaded again. The
+ * results are shared by concurrent translations, so the returned sets are unmodifiable.
+ */
+final class CachedSysMLUtil {
+
+  /** omgutil SysMLUtil answering the queries not remembered yet */
+  private final SysMLUtil sysMLUtil;
+  /** owned attributes by classes */
+  private final Map<Class, Set<Property>> ownedAttributes = new ConcurrentHashMap<>();
+  /** owned and inherited attributes by classes */
+  private final Map<Class, Set<Property>> allAttributes = new ConcurrentHashMap<>();
+  /** owned connectors by classes */
+  private final Map<Class, Set<Connector>> ownedConnectors = new ConcurrentHashMap<>();
+  /** owned and inherited rules (constraints) by classes */
+  private final Map<Class, Set<Constraint>> allRules = new ConcurrentHashMap<>();
+
+  /**
+   * A constructor
+   *
+   * @param _sysMLUtil (SysMLUtil) - omgutil SysMLUtil of the loaded xmi file
+   */
+  CachedSysMLUtil(SysMLUtil _sysMLUtil) {
+    this.sysMLUtil = _sysMLUtil;
+  }
+
+  /**
+   * Get the owned attributes of the given class.
+   *
+   * @param _class (Class) - a class
+   * @return (Set<Property>) - the owned attributes
+   */
+  Set<Property> getOwnedAttributes(Class _class) {
+    return get(ownedAttributes, _class, sysMLUtil::getOwnedAttributes);
+  }
+
+  /**
+   * Get the owned and inherited attributes of the given class. Built from the owned attributes of
+   * the class and the remembered attributes of its parents, so a generalization chain is walked
+   * only once for all classes in the chain.
+   *
+   * @param _class (Class) - a class
+   * @return (Set<Property>) - the owned attributes followed by the inherited attributes
+   */
+  Set<Property> getAllAttributes(Class _class) {
+    Set<Property> attributes = allAttributes.get(_class);
+    if (attributes != null) return attributes;
+    // not computeIfAbsent - recursive updates of a ConcurrentHashMap are not allowed
+    attributes = new LinkedHashSet<>(getOwnedAttributes(_class));
+    for (Classifier general : _class.getGenerals())
+      if (general instanceof Class) attributes.addAll(getAllAttributes((Class) general));
+    Set<Property> existing =
+        allAttributes.putIfAbsent(_class, Collections.unmodifiableSet(attributes));
+    return existing != null ? existing : allAttributes.get(_class);
+  }
+
+  /**
+   * Get the owned connectors of the given class.
+   *
+   * @param _class (Class) - a class
+   * @return (Set<Connector>) - the owned connectors
+   */
+  Set<Connector> getOwnedConnectors(Class _class) {
+    return get(ownedConnectors, _class, sysMLUtil::getOwnedConnectors);
+  }
+
+  /**
+   * Get the owned and inherited rules (constraints) of the given class.
+   *
+   * @param _class (Class) - a class
+   * @return (Set<Constraint>) - the rules
+   */
+  Set<Constraint> getAllRules(Class _class) {
+    return get(allRules, _class, sysMLUtil::getAllRules);
+  }
+
+  /**
+   * Get the remembered result of a query or run the query and remember the result. The queries are
+   * run one at a time since SysMLUtil is not made for concurrent use. Remembered results are
+   * returned without waiting.
+   *
+   * @param <T> - the type of the result elements
+   * @param _results (Map<Class, Set<T>>) - the remembered results of the query
+   * @param _class (Class) - the class queried
+   * @param _query (Function<Class, Set<T>>) - the query
+   * @return (Set<T>) - an unmodifiable result
+   */
+  private <T> Set<T> get(
+      Map<Class, Set<T>> _results, Class _class, Function<Class, Set<T>> _query) {
+    Set<T> result = _results.get(_class);
+    if (result != null) return result;
+    synchronized (sysMLUtil) {
+      return _results.computeIfAbsent(
+          _class, c -> Collections.unmodifiableSet(new LinkedHashSet<>(_query.apply(c))));
+    }
+  }
+}
@@ -0,0 +1,256 @@
+package edu.gatech.gtri.obm.alloy.translator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.uml2.uml.Class;
+import org.eclipse.uml2.uml.Connector;
+import org.eclipse.uml2.uml.ConnectorEnd;
+import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.NamedElement;
+
+/**
+ * Connectors of a class to be translated, classified by their kinds and analyzed for creating
+ * fields and facts. Connectors inherited by the class are found once from the class's inherited
+ * members (rebuilt by UML2 each time getInheritedMembers is called) instead of once per connector.
+ *
+ * <p>An object is created by analyze method which only reads the model. Fields and facts are
+ * created from the objects by ConnectorHandler and ConnectorsHandler_OneOf one class at a time.
+ */
+final class ClassConnectors {
+
+  /** Kinds of connectors */
+  enum Kind {
+    /** ends defined by happensAfter/happensBefore */
+    HAPPENS_BEFORE,
+    /** ends defined by happensDuring-1/happensDuring */
+    HAPPENS_DURING,
+    /** ends defined by transferSource/transferTarget */
+    TRANSFER,
+    /** with SysML::BindingConnector stereotype */
+    BINDING,
+    /** having a connector end in a OneOf rule, handled by ConnectorsHandler_OneOf */
+    ONE_OF,
+    /** none of above, nothing to translate */
+    OTHER;
+  }
+
+  /** the class owning the connectors */
+  private final Class ownerClass;
+  /** connectors to be translated (not inherited) in the given order */
+  private final List<Connector> connectors;
+  /** the kind of each connector */
+  private final Map<Connector, Kind> kinds;
+  /** OneOf rules (lists of ConnectorEnds) of the class */
+  private final Set<EList<Element>> oneOfSets;
+  /** the OneOf rules each connector end is in */
+  private final Map<ConnectorEnd, List<EList<Element>>> oneOfSetsByEnd;
+  /** connectors (including inherited) having an end in a OneOf rule */
+  private final Set<Connector> oneOfConnectors;
+  /** connectors mapped to omgutil connectors, having their ends' feature paths */
+  private final Set<Connector> mappedConnectors;
+  /** the names of the corrected feature path of each end having a defining end */
+  private final Map<ConnectorEnd, List<String>> featurePathNames;
+
+  /**
+   * Analyze the connectors of the given class. The model is only read, but UML2 derived features
+   * (i.e., inherited members) are cached by the model's CacheAdapter, so this method is called in
+   * the thread translating the class unless UML2 caches them for each thread.
+   *
+   * @param _class (Class) - the class owning the connectors
+   * @param _sysmlUtil (CachedSysMLUtil) - omgutil SysMLUtil of the loaded xmi file
+   * @param _sysmladapter (CachedSysMLAdapter) - omgutil SysMLAdapter of the loaded xmi file
+   * @param _stereotypeIndex (StereotypeIndex) - the stereotype applications of the loaded model
+   * @return (ClassConnectors) - the analyzed connectors
+   */
+  static ClassConnectors analyze(
+      Class _class,
+      CachedSysMLUtil _sysmlUtil,
+      CachedSysMLAdapter _sysmladapter,
+      StereotypeIndex _stereotypeIndex) {
+    // EList<ConnectorEnd> [ [start, eat] or [order, end]]
+    Set<EList<Element>> oneOfSets =
+        AlloyUtils.getOneOfRules(_sysmlUtil.getAllRules(_class), _sysmladapter);
+    return new ClassConnectors(
+        _class, _sysmlUtil.getOwnedConnectors(_class), oneOfSets, _sysmladapter, _stereotypeIndex);
+  }
+
+  /**
+   * Classify the given connectors of the given class and find the feature paths of their ends.
+   *
+   * @param _class (Class) - the class owning the connectors
+   * @param _connectors (Set<Connector>) - the connectors of the class
+   * @param _oneOfSets (Set<EList<Element>>) - the OneOf rules of the class
+   * @param _sysmladapter (CachedSysMLAdapter) - omgutil SysMLAdapter of the loaded xmi file
+   * @param _stereotypeIndex (StereotypeIndex) - the stereotype applications of the loaded model
+   */
+  private ClassConnectors(
+      Class _class,
+      Set<Connector> _connectors,
+      Set<EList<Element>> _oneOfSets,
+      CachedSysMLAdapter _sysmladapter,
+      StereotypeIndex _stereotypeIndex) {
+    this.ownerClass = _class;
+    this.oneOfSets = _oneOfSets;
+    oneOfSetsByEnd = new IdentityHashMap<>();
+    for (EList<Element> oneOfSet : _oneOfSets)
+      for (Element e : oneOfSet)
+        if (e instanceof ConnectorEnd)
+          oneOfSetsByEnd.computeIfAbsent((ConnectorEnd) e, k -> new ArrayList<>()).add(oneOfSet);
+
+    // finding connectors with oneof
+    oneOfConnectors = new HashSet<>();
+    for (Connector cn : _connectors) {
+      for (ConnectorEnd ce : cn.getEnds()) {
+        if (oneOfSetsByEnd.containsKey(ce)) oneOfConnectors.add(cn);
+      }
+    }
+
+    Set<Connector> inheritedConnectors = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (NamedElement member : _class.getInheritedMembers())
+      if (member instanceof Connector) inheritedConnectors.add((Connector) member);
+
+    connectors = new ArrayList<>();
+    kinds = new IdentityHashMap<>();
+    mappedConnectors = Collections.newSetFromMap(new IdentityHashMap<>());
+    featurePathNames = new IdentityHashMap<>();
+    for (Connector cn : _connectors) {
+      if (inheritedConnectors.contains(cn)) continue; // ignore inherited
+      Kind kind = oneOfConnectors.contains(cn) ? Kind.ONE_OF : kindOf(cn, _stereotypeIndex);
+      connectors.add(cn);
+      kinds.put(cn, kind);
+      if (kind != Kind.ONE_OF && kind != Kind.OTHER) analyzeEnds(cn, _sysmladapter);
+    }
+  }
+
+  /**
+   * Find the feature paths of the ends of the given connector if mapped to an omgutil connector.
+   *
+   * @param _connector (Connector) - a connector to be translated
+   * @param _sysmladapter (CachedSysMLAdapter) - omgutil SysMLAdapter of the loaded xmi file
+   */
+  private void analyzeEnds(Connector _connector, CachedSysMLAdapter _sysmladapter) {
+    edu.umd.omgutil.uml.Element omgE = _sysmladapter.mapObject(_connector);
+    if (!(omgE instanceof edu.umd.omgutil.uml.Connector)) return;
+    mappedConnectors.add(_connector);
+    edu.umd.omgutil.uml.Type owner = ((edu.umd.omgutil.uml.Connector) omgE).getFeaturingType();
+    for (ConnectorEnd ce : _connector.getEnds()) {
+      if (ce.getDefiningEnd() != null)
+        featurePathNames.put(ce, _sysmladapter.getCorrectedFeaturePathNames(ce, owner));
+    }
+  }
+
+  /**
+   * Get the class owning the connectors.
+   *
+   * @return (Class) - the class
+   */
+  Class getOwnerClass() {
+    return ownerClass;
+  }
+
+  /**
+   * Get the connectors to be translated (not inherited) in the order given to the constructor.
+   *
+   * @return (List<Connector>) - the connectors
+   */
+  List<Connector> getConnectors() {
+    return Collections.unmodifiableList(connectors);
+  }
+
+  /**
+   * Get the kind of the given connector.
+   *
+   * @param _connector (Connector) - a connector returned by getConnectors
+   * @return (Kind) - the kind of the connector
+   */
+  Kind getKind(Connector _connector) {
+    return kinds.get(_connector);
+  }
+
+  /**
+   * Get the OneOf rules of the class.
+   *
+   * @return (Set<EList<Element>>) - the OneOf rules (lists of ConnectorEnds)
+   */
+  Set<EList<Element>> getOneOfSets() {
+    return Collections.unmodifiableSet(oneOfSets);
+  }
+
+  /**
+   * Get the OneOf rules the given connector end is in.
+   *
+   * @param _end (ConnectorEnd) - a connector end
+   * @return (List<EList<Element>>) - the OneOf rules, empty if none
+   */
+  List<EList<Element>> getOneOfSets(ConnectorEnd _end) {
+    return oneOfSetsByEnd.getOrDefault(_end, Collections.emptyList());
+  }
+
+  /**
+   * Get the connectors (including inherited) having an end in a OneOf rule.
+   *
+   * @return (Set<Connector>) - the "OneOf" connectors
+   */
+  Set<Connector> getOneOfConnectors() {
+    return Collections.unmodifiableSet(oneOfConnectors);
+  }
+
+  /**
+   * Check if the given connector to be translated is mapped to an omgutil connector.
+   *
+   * @param _connector (Connector) - a connector returned by getConnectors
+   * @return (boolean) - true if mapped, otherwise false
+   */
+  boolean isMapped(Connector _connector) {
+    return mappedConnectors.contains(_connector);
+  }
+
+  /**
+   * Get the names of the corrected feature path of the given end from the featuring type of its
+   * connector.
+   *
+   * @param _end (ConnectorEnd) - an end having a defining end of a mapped connector
+   * @return (List<String>) - the feature names
+   */
+  List<String> getFeaturePathNames(ConnectorEnd _end) {
+    return featurePathNames.get(_end);
+  }
+
+  /**
+   * Find the kind of the given connector from its ends.
+   *
+   * @param _connector (Connector) - a connector
+   * @param _stereotypeIndex (StereotypeIndex) - the stereotype applications of the loaded model
+   * @return (Kind) - the kind of the connector other than ONE_OF
+   */
+  private static Kind kindOf(Connector _connector, StereotypeIndex _stereotypeIndex) {
+    for (ConnectorEnd ce : _connector.getEnds()) {
+      if (ce.getDefiningEnd() == null) {
+        if (_stereotypeIndex.isApplied(_connector, ConnectorHandler.STEREOTYPE_BINDDINGCONNECTOR))
+          return Kind.BINDING;
+        continue;
+      }
+      String definingEndName = ce.getDefiningEnd().getName();
+      if (definingEndName == null) continue;
+      switch (definingEndName) {
+        case "happensAfter":
+        case "happensBefore":
+          return Kind.HAPPENS_BEFORE;
+        case "happensDuring-1":
+        case "happensDuring":
+          return Kind.HAPPENS_DURING;
+        case "transferSource":
+        case "transferTarget":
+          return Kind.TRANSFER;
+        default:
+      }
+    }
+    return Kind.OTHER;
+  }
+}
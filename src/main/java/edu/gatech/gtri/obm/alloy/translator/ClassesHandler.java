@@ -3,11 +3,14 @@ package edu.gatech.gtri.obm.alloy.translator;
 import edu.mit.csail.sdg.ast.Sig;
 import edu.mit.csail.sdg.ast.Sig.Field;
 import edu.mit.csail.sdg.ast.Sig.PrimSig;
-import edu.umd.omgutil.sysml.sysml1.SysMLUtil;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -28,12 +31,27 @@ import org.eclipse.uml2.uml.Property;
  */
 public class ClassesHandler {
 
+  /** A class being traversed by processClassToSig with its properties not gone through yet */
+  private static final class TraversalFrame {
+    /** the class being traversed */
+    final NamedElement namedElement;
+    /** the remaining properties of the class */
+    final Iterator<Property> properties;
+    /** the properties gone through by their types */
+    final Map<org.eclipse.uml2.uml.Type, List<Property>> propertiesByTheirType = new HashMap<>();
+
+    TraversalFrame(NamedElement _namedElement, Iterator<Property> _properties) {
+      this.namedElement = _namedElement;
+      this.properties = _properties;
+    }
+  }
+
   /** Stereotype qualified names for step property */
-  private static String STEREOTYPE_STEP = "Model::OBM::Step";
+  static final String STEREOTYPE_STEP = "Model::OBM::Step";
   /** Stereotype qualified names for parameter property */
-  private static String STEREOTYPE_PAREMETER = "Model::OBM::Parameter";
+  static final String STEREOTYPE_PAREMETER = "Model::OBM::Parameter";
   /** Stereotype qualified names for paticipant property */
-  private static String STEREOTYPE_PATICIPANT = "SysML::ParticipantProperty";
+  static final String STEREOTYPE_PATICIPANT = "SysML::ParticipantProperty";
 
   /** A class that connects XMI model and the Alloy data model */
   ToAlloy toAlloy;
@@ -48,13 +66,22 @@ public class ClassesHandler {
    */
   Map<String, Set<String>> stepPropertiesBySig;
 
+  /** NamedElements traversed by processClassToSig */
+  Set<NamedElement> traversedElements;
+  /** The number of times processClassToSig reached a NamedElement already traversed */
+  int traversalRevisits;
+  /** The maximum number of classes being traversed at once by processClassToSig */
+  int traversalMaxDepth;
+
   /** A set of leaf signatures */
   Set<PrimSig> leafSigs;
   /** A set of Alloy fields created for Properties with <<Parameter>> stereotype */
   Set<Field> parameterFields;
 
   /** omgutil SysMLUtil - used to create the omgutil ResourceSet used during the translation */
-  SysMLUtil sysMLUtil;
+  CachedSysMLUtil sysMLUtil;
+  /** The stereotype applications of the loaded model */
+  StereotypeIndex stereotypeIndex;
 
   /** A main Class translating to Alloy. */
   Class mainClass;
@@ -74,12 +101,18 @@ public class ClassesHandler {
    *
    * @param _mainClass (Class) - a starting class to be translated to alloy.
    * @param _toAlloy (ToAlloy) - the helper class to connect this to alloy.
-   * @param _sysMLUtil (SysMLUtil) - the helper class from OBMUtil3
+   * @param _sysMLUtil (CachedSysMLUtil) - the helper class from OBMUtil3
+   * @param _stereotypeIndex (StereotypeIndex) - the stereotype applications of the loaded model
    */
-  protected ClassesHandler(Class _mainClass, ToAlloy _toAlloy, SysMLUtil _sysMLUtil) {
+  protected ClassesHandler(
+      Class _mainClass,
+      ToAlloy _toAlloy,
+      CachedSysMLUtil _sysMLUtil,
+      StereotypeIndex _stereotypeIndex) {
     this.mainClass = _mainClass;
     this.toAlloy = _toAlloy;
     this.sysMLUtil = _sysMLUtil;
+    this.stereotypeIndex = _stereotypeIndex;
   }
 
   /**
@@ -93,10 +126,13 @@ public class ClassesHandler {
     parameterFields = new HashSet<>(); // Set<Field>
     propertiesByClass =
         new HashMap<>(); // Map<NamedElement, Map<org.eclipse.uml2.uml.Type, List<Property>>>
+    traversedElements = Collections.newSetFromMap(new IdentityHashMap<>());
+    traversalRevisits = 0;
+    traversalMaxDepth = 0;
 
     // The hierarchy for main class of list is [0]=grand parent [1]=parent [2]=child(mainClass)
     this.classInHierarchyForMain = UML2Utils.createListIncludeSelfAndParents(mainClass);
-    PrimSig parentSig = Alloy.occSig; // oldest's parent is always Occurrence
+    PrimSig parentSig = toAlloy.getOccurrenceSig(); // oldest's parent is always Occurrence
     for (Class aClass : classInHierarchyForMain) { // loop through oldest to youngest(main
       // is the youngest)
       boolean isMainSig = (aClass == mainClass) ? true : false;
@@ -181,7 +217,7 @@ public class ClassesHandler {
               nonRedefinedPropertyInAlphabeticalOrderPerType.add(p.getName());
             else redefinedProperties.add(p);
 
-            if (p.getAppliedStereotype(STEREOTYPE_PAREMETER) != null)
+            if (stereotypeIndex.isApplied(p, STEREOTYPE_PAREMETER))
               parameterProperties.add(p.getName());
 
           } else {
@@ -230,16 +266,19 @@ public class ClassesHandler {
   }
 
   /**
-   * go through a class, its properties, a property, and its type (class) recursively to complete
+   * go through a class, its properties, a property, and its type (class) to complete
    * propertiesByClass (Map<NamedElement, Map<org.eclipse.uml2.uml.Type, List<Property>>>) and
    * create signatures of the property types(Class or PrimitiveType).
    *
    * <p>For example, this processClassToSig method is called from outside of this method : with
-   * umlElement = FoodService, then called recursively(internally) umlElement as Prepare -> Order ->
-   * Serve -> Eat -> Pay. The propertiesByClass is Map<NamedElement, Map<org.eclipse.uml2.uml.Type,
-   * List<Property>>> where the key NamedElement to be mapped to Sig (class or PrimitiveType like
-   * Integer and Real) and value is Map<org.eclipse.uml2.uml.Type, List<Property>. The map's key
-   * type is property/field's type and List<Property> is property/fields having the same type.
+   * umlElement = FoodService, then goes through umlElement as Prepare -> Order -> Serve -> Eat ->
+   * Pay. Types are traversed with a stack instead of recursion in the same order as the recursion,
+   * and each NamedElement is traversed only once, so cyclic or deep type graphs are traversed
+   * without StackOverflowError. The propertiesByClass is Map<NamedElement,
+   * Map<org.eclipse.uml2.uml.Type, List<Property>>> where the key NamedElement to be mapped to Sig
+   * (class or PrimitiveType like Integer and Real) and value is Map<org.eclipse.uml2.uml.Type,
+   * List<Property>. The map's key type is property/field's type and List<Property> is
+   * property/fields having the same type.
    *
    * <p>For example, sig SimpleSequence extends Occurrence { disj p1,p2: set AtomicBehavior }
    * propertiesByClass's key = SimpleSequence and value = (key = AtomicBehavior, value =[p1,p2])
@@ -248,51 +287,77 @@ public class ClassesHandler {
    *     org.eclipse.uml2.uml.PrimitiveType to be analyzed to complete propertiesByClass
    */
   private void processClassToSig(NamedElement _namedElement) {
+    // frames of classes being traversed. A class's frame is on top of its owner class's frame like
+    // a call stack of the recursion going through properties in the order and their types.
+    Deque<TraversalFrame> stack = new ArrayDeque<>();
+    enterClassToSig(_namedElement, stack);
+    while (!stack.isEmpty()) {
+      TraversalFrame frame = stack.peek();
+      if (!frame.properties.hasNext()) {
+        stack.pop();
+        TraversalFrame owner = stack.peek();
+        if (owner != null) propertiesByClass.put(owner.namedElement, owner.propertiesByTheirType);
+        continue;
+      }
+      Property p = frame.properties.next();
+      org.eclipse.uml2.uml.Type eType = p.getType();
+      frame.propertiesByTheirType.computeIfAbsent(eType, k -> new ArrayList<>()).add(p);
+
+      if (eType instanceof org.eclipse.uml2.uml.Class
+          || eType instanceof org.eclipse.uml2.uml.PrimitiveType) {
+
+        EList<Classifier> parents = null;
+        if (eType instanceof org.eclipse.uml2.uml.Class) {
+          parents = ((org.eclipse.uml2.uml.Class) eType).getGenerals();
+        }
+        // alloy allows only one parent
+        // create Sig of property type with or without parent
+        // parent should already exists
+        toAlloy.createSigOrReturnSig(
+            eType.getName(),
+            parents == null || parents.size() == 0 ? null : parents.get(0).getName());
+        // process both eType(Class or PrimitiveType) - the owner is put to propertiesByClass when
+        // eType's frame is done
+        if (enterClassToSig(eType, stack)) continue;
+      }
+      propertiesByClass.put(frame.namedElement, frame.propertiesByTheirType);
+    }
+  }
+
+  /**
+   * Start traversing the given namedElement for processClassToSig if not traversed yet. A class
+   * having properties is pushed to the given stack to go through its properties, others are put to
+   * propertiesByClass with null.
+   *
+   * @param _namedElement (NamedElement) - a namedElement either org.eclipse.uml2.uml.Class or
+   *     org.eclipse.uml2.uml.PrimitiveType
+   * @param _stack (Deque<TraversalFrame>) - the frames of classes being traversed
+   * @return (boolean) - true if pushed to the stack, otherwise false
+   */
+  private boolean enterClassToSig(NamedElement _namedElement, Deque<TraversalFrame> _stack) {
+    if (!traversedElements.add(_namedElement)) {
+      traversalRevisits++; // already traversed or being traversed (a cycle)
+      return false;
+    }
     if (_namedElement instanceof org.eclipse.uml2.uml.Class) {
       Set<Property> atts = sysMLUtil.getOwnedAttributes((org.eclipse.uml2.uml.Class) _namedElement);
-
       if (atts.size() == 0) {
         propertiesByClass.put(_namedElement, null);
-        return;
+        return false;
       }
-
       // find property having the same type
       // for example) sig MultipleObjectFlowAlt extends Occurrence
       // { p1: set BehaviorWithParameterOut, ....
       // key = BehaviorWithParameterOut, value = [p1]
-      Map<org.eclipse.uml2.uml.Type, List<Property>> propertiesByTheirType = new HashMap<>();
-      for (Property p : atts) {
-        org.eclipse.uml2.uml.Type eType = p.getType();
-        List<Property> ps =
-            propertiesByTheirType.get(eType) == null
-                ? new ArrayList<>()
-                : propertiesByTheirType.get(eType);
-        ps.add(p);
-        propertiesByTheirType.put(eType, ps);
-
-        if (eType instanceof org.eclipse.uml2.uml.Class
-            || eType instanceof org.eclipse.uml2.uml.PrimitiveType) {
-
-          EList<Classifier> parents = null;
-          if (eType instanceof org.eclipse.uml2.uml.Class) {
-            parents = ((org.eclipse.uml2.uml.Class) eType).getGenerals();
-          }
-          // alloy allows only one parent
-          // create Sig of property type with or without parent
-          // parent should already exists
-          toAlloy.createSigOrReturnSig(
-              eType.getName(),
-              parents == null || parents.size() == 0 ? null : parents.get(0).getName());
-          // process both eType(Class or PrimitiveType) recursively
-          processClassToSig(eType);
-        }
-        propertiesByClass.put(_namedElement, propertiesByTheirType);
-      }
+      _stack.push(new TraversalFrame(_namedElement, atts.iterator()));
+      traversalMaxDepth = Math.max(traversalMaxDepth, _stack.size());
+      return true;
     }
     // like Integer and Real - assume no properties, thus put null as the value of propertiesByClass
     else if (_namedElement instanceof org.eclipse.uml2.uml.PrimitiveType) {
       propertiesByClass.put(_namedElement, null);
     }
+    return false;
   }
 
   /**
@@ -311,8 +376,8 @@ public class ClassesHandler {
       Set<org.eclipse.uml2.uml.Property> atts =
           sysMLUtil.getAllAttributes((org.eclipse.uml2.uml.Class) _namedElement);
       for (Property p : atts) {
-        if (p.getAppliedStereotype(STEREOTYPE_STEP) != null
-            || p.getAppliedStereotype(STEREOTYPE_PATICIPANT) != null) {
+        if (stereotypeIndex.isApplied(p, STEREOTYPE_STEP)
+            || stereotypeIndex.isApplied(p, STEREOTYPE_PATICIPANT)) {
           stepProperties.add(p.getName());
         }
       }
@@ -376,6 +441,22 @@ public class ClassesHandler {
     return this.propertiesByClass.keySet();
   }
 
+  /**
+   * Get statistics of traversing classes from the main class through property types.
+   *
+   * @return (String) - the numbers of traversed NamedElements, revisits skipped and the maximum
+   *     depth
+   */
+  protected String getTraversalStatistics() {
+    return "Traversed "
+        + traversedElements.size()
+        + " classes and primitive types ("
+        + traversalRevisits
+        + " revisits skipped, max depth "
+        + traversalMaxDepth
+        + ")";
+  }
+
   /**
    * Get errorMessages collected during the translation.
    *
@@ -4,14 +4,10 @@ import edu.mit.csail.sdg.ast.Expr;
 import edu.mit.csail.sdg.ast.Sig;
 import edu.mit.csail.sdg.ast.Sig.Field;
 import edu.mit.csail.sdg.ast.Sig.PrimSig;
-import edu.umd.omgutil.sysml.sysml1.SysMLAdapter;
-import edu.umd.omgutil.sysml.sysml1.SysMLUtil;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
-import org.eclipse.uml2.uml.Class;
 import org.eclipse.uml2.uml.Connector;
 import org.eclipse.uml2.uml.ConnectorEnd;
 
@@ -29,7 +25,7 @@ public class ConnectorHandler {
   }
 
   /** Stereotype qualified names */
-  private static String STEREOTYPE_BINDDINGCONNECTOR = "SysML::BindingConnector";
+  static String STEREOTYPE_BINDDINGCONNECTOR = "SysML::BindingConnector";
 
   Map<Field, Set<Field>> fieldWithInputs;
   // key = prepare, value= [preparedFoodItem,prepareDestination]
@@ -61,10 +57,8 @@ public class ConnectorHandler {
   /** A set of transfer field names */
   protected Set<String> transferFieldNames;
 
-  /** omgutils sysmladapter * */
-  SysMLAdapter sysmladapter;
-  /** omgutils sysmlutl * */
-  SysMLUtil sysmlUtil;
+  /** The stereotype applications of the loaded model */
+  StereotypeIndex stereotypeIndex;
 
   /** A transfer connecter handler if this connector is transfer connector * */
   ConnectorHandler_Transfer transfer_connectorHandler;
@@ -77,8 +71,7 @@ public class ConnectorHandler {
    * @param _sigToFactsMap (Map<String, Set<Expr>)
    * @param _parameterFields (Set<Field>)
    * @param _sigToTransferFieldMap (Map<String, Set<String>>)
-   * @param _sysmladapter (SysMLAdapter)
-   * @param _sysmlUtil (SysMLUtil)
+   * @param _stereotypeIndex (StereotypeIndex)
    */
   protected ConnectorHandler(
       Set<Connector> _redefinedConnectors,
@@ -86,11 +79,9 @@ public class ConnectorHandler {
       Map<String, Set<Expr>> _sigToFactsMap,
       Set<Field> _parameterFields,
       Map<String, Set<String>> _sigToTransferFieldMap,
-      SysMLAdapter _sysmladapter,
-      SysMLUtil _sysmlUtil) {
+      StereotypeIndex _stereotypeIndex) {
 
-    this.sysmladapter = _sysmladapter;
-    this.sysmlUtil = _sysmlUtil;
+    this.stereotypeIndex = _stereotypeIndex;
 
     // passed by reference from ConnenctorHandler used and updated during in instance of this class
     redefinedConnectors = _redefinedConnectors;
@@ -112,34 +103,33 @@ public class ConnectorHandler {
             sigToTransferFieldMap,
             redefinedConnectors,
             parameterFields,
+            stereotypeIndex,
             messages);
   }
 
   /**
    * Create facts for a signature by observing own connectors.
    *
-   * @param _classOfSig(Class) - the owner of the connector
+   * @param _classConnectors(ClassConnectors) - the analyzed connectors of the owner class
    * @param _isSigLeaf(boolean) - true if this signature is leaf, otherwise false
    */
-  protected void processConnectorsForASig(Class _classOfSig, boolean _isSigLeaf) {
+  protected void processConnectorsForASig(ClassConnectors _classConnectors, boolean _isSigLeaf) {
 
     transfer_connectorHandler
         .reset(); // transferFieldNames requires to reset for each class. The transferFiledNames
     // used to define stepProperties.
 
-    PrimSig sigOfClass = this.toAlloy.getSig(_classOfSig.getName());
-    Set<org.eclipse.uml2.uml.Connector> connectors = sysmlUtil.getOwnedConnectors(_classOfSig);
+    PrimSig sigOfClass = this.toAlloy.getSig(_classConnectors.getOwnerClass().getName());
 
     // handle one of connectors
-    ConnectorsHandler_OneOf och =
-        new ConnectorsHandler_OneOf(sysmlUtil, sysmladapter, toAlloy, this.messages);
-    Set<Connector> oneOfConnectors = och.handleOneOfConnectors(sigOfClass, _classOfSig, connectors);
+    ConnectorsHandler_OneOf och = new ConnectorsHandler_OneOf(toAlloy, this.messages);
+    och.handleOneOfConnectors(sigOfClass, _classConnectors);
 
-    // process remaining of connectors
-    for (org.eclipse.uml2.uml.Connector cn : connectors) {
-      if (oneOfConnectors.contains(cn))
-        continue; // oneof connectors are already handled above so skip here
-      if (_classOfSig.getInheritedMembers().contains(cn)) continue; // ignore inherited
+    // process remaining of connectors (not inherited)
+    for (org.eclipse.uml2.uml.Connector cn : _classConnectors.getConnectors()) {
+      ClassConnectors.Kind kind = _classConnectors.getKind(cn);
+      // oneof connectors are already handled above so skip here
+      if (kind == ClassConnectors.Kind.ONE_OF || kind == ClassConnectors.Kind.OTHER) continue;
 
       // for example) while translating IFSingleFoolService and processing connectors for
       // IFFoodService,
@@ -148,11 +138,7 @@ public class ConnectorHandler {
       if (this.redefinedConnectors.contains(cn)) continue; // ignore
 
       CONNECTOR_TYPE connector_type = null;
-      edu.umd.omgutil.uml.Element omgE = sysmladapter.mapObject(cn);
-      if (omgE instanceof edu.umd.omgutil.uml.Connector) {
-        edu.umd.omgutil.uml.Connector omgConnector = (edu.umd.omgutil.uml.Connector) omgE;
-
-        edu.umd.omgutil.uml.Type owner = omgConnector.getFeaturingType();
+      if (_classConnectors.isMapped(cn)) { // mapped to omgutil connector
         String source = null;
         String target = null;
 
@@ -163,7 +149,7 @@ public class ConnectorHandler {
         for (ConnectorEnd ce : ((Connector) cn).getEnds()) {
 
           if (ce.getDefiningEnd() == null) {
-            if (cn.getAppliedStereotype(STEREOTYPE_BINDDINGCONNECTOR) != null) {
+            if (stereotypeIndex.isApplied(cn, STEREOTYPE_BINDDINGCONNECTOR)) {
               if (isBindingConnector == false) {
                 source = ce.getRole().getLabel();
                 isBindingConnector = true;
@@ -177,12 +163,7 @@ public class ConnectorHandler {
           } else {
 
             String definingEndName = ce.getDefiningEnd().getName();
-            edu.umd.omgutil.uml.ConnectorEnd end =
-                (edu.umd.omgutil.uml.ConnectorEnd) sysmladapter.mapObject(ce);
-            List<String> endsFeatureNames =
-                end.getCorrectedFeaturePath(owner).stream()
-                    .map(f -> f.getName())
-                    .collect(Collectors.toList());
+            List<String> endsFeatureNames = _classConnectors.getFeaturePathNames(ce);
 
             if (definingEndName.equals("happensAfter")) {
               connector_type = CONNECTOR_TYPE.HAPPENS_BEFORE;
@@ -215,8 +196,8 @@ public class ConnectorHandler {
             // i.e., For 4.1.4 Transfers and Parameters - a connector <<ItemFlow>> for b(B).vout and
             // b2(B2).vout
             // source="b2" target="b", sigOfClass= "B" -- "b" is not a field of "B"
-            Field sourceField = AlloyUtils.getFieldFromSigOrItsParents(source, sigOfClass);
-            Field targetField = AlloyUtils.getFieldFromSigOrItsParents(target, sigOfClass);
+            Field sourceField = this.toAlloy.getFieldFromSigOrItsParents(source, sigOfClass);
+            Field targetField = this.toAlloy.getFieldFromSigOrItsParents(target, sigOfClass);
 
             if (connector_type == CONNECTOR_TYPE.HAPPENS_BEFORE) {
               this.toAlloy.addBijectionFilteredHappensBeforeFact(
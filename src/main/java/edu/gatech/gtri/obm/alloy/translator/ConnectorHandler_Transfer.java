@@ -44,6 +44,8 @@ public class ConnectorHandler_Transfer {
 
   /** A set of field created from properties having ClassHandler.STEREOTYPE_PAREMETER stereotype. */
   Set<Field> parameterFields;
+  /** The stereotype applications of the loaded model */
+  StereotypeIndex stereotypeIndex;
 
   /**
    * A dictionary where a key is a field and a value is a set of fields. The dictionary value is
@@ -101,6 +103,7 @@ public class ConnectorHandler_Transfer {
    * @param _sigToTransferFieldMap (Map<String>, Set<String>>) -
    * @param _redefinedConnectors (Set<Connector>)
    * @param _parameterFields (Set<Field>)
+   * @param _stereotypeIndex (StereotypeIndex)
    * @param _messages (List<String>)
    */
   protected ConnectorHandler_Transfer(
@@ -109,12 +112,14 @@ public class ConnectorHandler_Transfer {
       Map<String, Set<String>> _sigToTransferFieldMap,
       Set<Connector> _redefinedConnectors,
       Set<Field> _parameterFields,
+      StereotypeIndex _stereotypeIndex,
       List<String> _messages) {
     toAlloy = _toAlloy;
     sigToFactsMap = _sigToFactsMap;
     sigToTransferFieldsMap = _sigToTransferFieldMap;
     redefinedConnectors = _redefinedConnectors;
     parameterFields = _parameterFields;
+    stereotypeIndex = _stereotypeIndex;
     messages = _messages;
 
     // initialize
@@ -247,7 +252,7 @@ public class ConnectorHandler_Transfer {
     String fieldName = "transfer" + firstCharUpper(_source) + firstCharUpper(_target);
     this.transferFieldNames.add(fieldName);
     sigToTransferFieldsMap.computeIfAbsent(_sigOfClass.label, v -> new HashSet<>()).add(fieldName);
-    Sig.Field transferField = AlloyUtils.addTransferField(fieldName, _sigOfClass);
+    Sig.Field transferField = toAlloy.addTransferField(fieldName, _sigOfClass);
     return transferField;
   }
 
@@ -268,10 +273,10 @@ public class ConnectorHandler_Transfer {
     // not property
     Map<String, List<Property>> stTagItemFlowValues =
         UML2Utils.getStreotypePropertyValues(
-            _connector, STEREOTYPE_ITEMFLOW, stTagNames, this.messages);
+            _connector, STEREOTYPE_ITEMFLOW, stTagNames, stereotypeIndex, this.messages);
     Map<String, List<Property>> stTagObjectFlowValues =
         UML2Utils.getStreotypePropertyValues(
-            _connector, STEREOTYPE_OBJECTFLOW, stTagNames, this.messages);
+            _connector, STEREOTYPE_OBJECTFLOW, stTagNames, stereotypeIndex, this.messages);
 
     List<Property> sos = null;
     List<Property> tis = null;
@@ -377,7 +382,7 @@ public class ConnectorHandler_Transfer {
       PrimSig typeSig = toAlloy.getSig(_sourceTypeName); // sourceTypeName =IFCustomerOrder
       for (String sourceOutput : _sourceOutputAndTargetInputProperties.get(0)) {
         // orderedFoodItem
-        Field outputTo = AlloyUtils.getFieldFromSigOrItsParents(sourceOutput, typeSig); // i
+        Field outputTo = toAlloy.getFieldFromSigOrItsParents(sourceOutput, typeSig); // i
         // fact {all x: MultipleObjectFlow | bijectionFiltered[outputs, x.p1, x.p1.i]}
         if (!parameterFields.contains(outputTo)) sourceOutputPropertyFields.add(outputTo);
 
@@ -391,7 +396,8 @@ public class ConnectorHandler_Transfer {
           toAlloy.addBijectionFilteredOutputsFact(
               _sigOfClass, _sourceField, _sourceField.join(outputTo));
           if (_addEquals)
-            toAlloy.createInFieldExpression(_sigOfClass, _sourceField, outputTo, Alloy.ooutputs);
+            toAlloy.createInFieldExpression(
+                _sigOfClass, _sourceField, outputTo, toAlloy.getLibrary().ooutputs);
         }
       }
     }
@@ -402,7 +408,7 @@ public class ConnectorHandler_Transfer {
       PrimSig typeSig = toAlloy.getSig(_targetTypeName); // IFCustomPrepare
       for (String targetInputProperties : _sourceOutputAndTargetInputProperties.get(1)) {
         Field inputTo =
-            AlloyUtils.getFieldFromSigOrItsParents(
+            toAlloy.getFieldFromSigOrItsParents(
                 targetInputProperties, // i
                 typeSig);
         if (!parameterFields.contains(inputTo)) targetInputPropertyFields.add(inputTo);
@@ -418,7 +424,8 @@ public class ConnectorHandler_Transfer {
           toAlloy.addBijectionFilteredInputsFact(
               _sigOfClass, _targetField, _targetField.join(inputTo));
           if (_addEquals) {
-            toAlloy.createInFieldExpression(_sigOfClass, _targetField, inputTo, Alloy.oinputs);
+            toAlloy.createInFieldExpression(
+                _sigOfClass, _targetField, inputTo, toAlloy.getLibrary().oinputs);
           }
         }
       }
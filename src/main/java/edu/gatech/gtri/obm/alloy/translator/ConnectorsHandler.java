@@ -4,13 +4,15 @@ import edu.mit.csail.sdg.ast.Expr;
 import edu.mit.csail.sdg.ast.Sig;
 import edu.mit.csail.sdg.ast.Sig.Field;
 import edu.mit.csail.sdg.ast.Sig.PrimSig;
-import edu.umd.omgutil.sysml.sysml1.SysMLAdapter;
-import edu.umd.omgutil.sysml.sysml1.SysMLUtil;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import org.eclipse.uml2.uml.Class;
 import org.eclipse.uml2.uml.Connector;
@@ -24,7 +26,11 @@ import org.eclipse.uml2.uml.NamedElement;
 public class ConnectorsHandler {
 
   /** omgutil SysMLUtil - Util method from omgutil */
-  SysMLUtil sysmlUtil;
+  CachedSysMLUtil sysmlUtil;
+  /** omgutil SysMLAdapter - Adapter for SysML from omgutil */
+  CachedSysMLAdapter sysmladapter;
+  /** The stereotype applications of the loaded model */
+  StereotypeIndex stereotypeIndex;
 
   /**
    * A set of connectors redefined by children so that the connectors are ignored by the parent.
@@ -54,15 +60,22 @@ public class ConnectorsHandler {
 
   ConnectorHandler connectorHandler;
 
+  /** An executor analyzing connectors of classes in parallel. null to analyze them in order. */
+  ExecutorService analysisExecutor;
+
   protected ConnectorsHandler(
-      SysMLAdapter sysMLAdapter,
-      SysMLUtil _sysmlUtil,
+      CachedSysMLAdapter sysMLAdapter,
+      CachedSysMLUtil _sysmlUtil,
+      StereotypeIndex _stereotypeIndex,
       Set<PrimSig> _leafSigs,
       ToAlloy _toAlloy,
       Set<Field> _parameterFields,
-      Map<String, Set<String>> _stepPropertiesBySig) {
+      Map<String, Set<String>> _stepPropertiesBySig,
+      ExecutorService _analysisExecutor) {
 
     this.sysmlUtil = _sysmlUtil;
+    this.sysmladapter = sysMLAdapter;
+    this.stereotypeIndex = _stereotypeIndex;
 
     this.redefinedConnectors =
         new HashSet<Connector>(); // pass to each instance of pcm and used and updated
@@ -71,6 +84,7 @@ public class ConnectorsHandler {
     this.parameterFields =
         _parameterFields; // pass from OBMXMI2Alloy and used during process method
     this.stepPropertiesBySig = _stepPropertiesBySig;
+    this.analysisExecutor = _analysisExecutor;
 
     this.sigToTransferFieldMap =
         new HashMap<>(); // instance variable updated in pcm.process method and used later by
@@ -86,12 +100,13 @@ public class ConnectorsHandler {
             this.sigToFactsMap,
             this.parameterFields,
             this.sigToTransferFieldMap,
-            sysMLAdapter,
-            this.sysmlUtil);
+            this.stereotypeIndex);
   }
 
   /**
-   * Go processing all connectors in the correct order.
+   * Go processing all connectors in the correct order. Connectors of all classes are analyzed
+   * first, in parallel if an analysis executor is given, then fields and facts are created one
+   * class at a time.
    *
    * @param _classInHierarchy List of Class from oldest to youngest where the youngest is main class
    *     you tried to translate.
@@ -102,24 +117,72 @@ public class ConnectorsHandler {
       List<Class> _classInHierarchy,
       Set<NamedElement> _allNamedElementsConnectedToMainSigByFields) {
 
+    List<Class> classes = new ArrayList<>();
     // go through from child to parent so that facts generated from redefined connectors will not be
     // created by parent.
     for (int i = _classInHierarchy.size() - 1; i >= 0; i--) {
-      Class classOfSig = _classInHierarchy.get(i);
-      processConnectorsForAClass(classOfSig);
+      classes.add(_classInHierarchy.get(i));
     }
     // after handling connectors for Signatures(hierarchy of main Signature), handle others classes.
     for (NamedElement ne : _allNamedElementsConnectedToMainSigByFields) {
 
       if (!_classInHierarchy.contains(ne)
           && ne instanceof Class) { // no connector processing in PrimitiveType (Real, Integer)
-        processConnectorsForAClass((Class) ne);
+        classes.add((Class) ne);
+      }
+    }
+
+    List<ClassConnectors> analyzedClasses = analyze(classes);
+    // create fields and facts one class at a time in the order above so the output is the same as
+    // analyzing one class at a time (redefinedConnectors of children are used by parents)
+    for (ClassConnectors classConnectors : analyzedClasses)
+      processConnectorsForAClass(classConnectors);
+  }
+
+  /**
+   * Analyze connectors of the given classes. With an analysis executor, the classes are analyzed in
+   * parallel and the analyses are merged in the order of the given classes. UML2 derived features
+   * (i.e., inherited members) are then cached for each thread (see
+   * OBMXMI2Alloy.enableConcurrentTranslation).
+   *
+   * @param _classes (List<Class>) - classes in the order to create fields and facts
+   * @return (List<ClassConnectors>) - the analyzed connectors in the order of the given classes
+   */
+  private List<ClassConnectors> analyze(List<Class> _classes) {
+    List<ClassConnectors> analyzedClasses = new ArrayList<>();
+    if (analysisExecutor == null) {
+      for (Class c : _classes)
+        analyzedClasses.add(ClassConnectors.analyze(c, sysmlUtil, sysmladapter, stereotypeIndex));
+      return analyzedClasses;
+    }
+
+    List<Future<ClassConnectors>> futures = new ArrayList<>();
+    for (Class c : _classes)
+      futures.add(
+          analysisExecutor.submit(
+              () -> ClassConnectors.analyze(c, sysmlUtil, sysmladapter, stereotypeIndex)));
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        analyzedClasses.add(futures.get(i).get());
+      } catch (ExecutionException e) {
+        for (Future<ClassConnectors> future : futures) future.cancel(false);
+        if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+        throw new IllegalStateException(e.getCause());
+      } catch (InterruptedException e) {
+        // analyze the rest in this thread and leave the interrupt to the caller
+        Thread.currentThread().interrupt();
+        for (Future<ClassConnectors> future : futures) future.cancel(false);
+        for (int j = i; j < _classes.size(); j++)
+          analyzedClasses.add(
+              ClassConnectors.analyze(_classes.get(j), sysmlUtil, sysmladapter, stereotypeIndex));
+        break;
       }
     }
+    return analyzedClasses;
   }
 
   /**
-   * @param ne - a namedElement transfer to a signature.
+   * @param _classConnectors - the analyzed connectors of a class transfer to a signature.
    * @param outConnectorInputPropertiesBySig - a map data to be collected where values are
    *     connectors' targetInputProperty tag values (property names) and key the property owner
    *     (namedElement) name
@@ -130,10 +193,11 @@ public class ConnectorsHandler {
    * @return a set of signature string names having transfer field(s) of the same input and output
    *     types
    */
-  private void processConnectorsForAClass(Class ne) {
+  private void processConnectorsForAClass(ClassConnectors _classConnectors) {
 
+    Class ne = _classConnectors.getOwnerClass();
     PrimSig ownerSig = this.toAlloy.getSig(ne.getName()); // pcm.getSigOfNamedElement();
-    connectorHandler.processConnectorsForASig(ne, leafSigs.contains(ownerSig));
+    connectorHandler.processConnectorsForASig(_classConnectors, leafSigs.contains(ownerSig));
 
     Set<String> sigNameWithTransferConnectorWithSameInputOutputFieldType =
         connectorHandler.getSigNameWithTransferConnectorWithSameInputOutputFieldType();
@@ -151,10 +215,10 @@ public class ConnectorsHandler {
       for (String fieldName : nonTransferFieldNames) {
         if (!AlloyUtils.fieldsLabels(fieldWithInputs.keySet()).contains(fieldName)) {
           // fact {all x: MultipleObjectFlow |no x.p1.inputs}
-          toAlloy.addNoInputsOrOutputsFieldFact(ownerSig, fieldName, Alloy.oinputs);
+          toAlloy.addNoInputsOrOutputsFieldFact(ownerSig, fieldName, toAlloy.getLibrary().oinputs);
         }
         if (!AlloyUtils.fieldsLabels(fieldWithOutputs.keySet()).contains(fieldName)) {
-          toAlloy.addNoInputsOrOutputsFieldFact(ownerSig, fieldName, Alloy.ooutputs);
+          toAlloy.addNoInputsOrOutputsFieldFact(ownerSig, fieldName, toAlloy.getLibrary().ooutputs);
         }
       }
     }
@@ -165,11 +229,13 @@ public class ConnectorsHandler {
       // The following fact is NOT included because x.p1.vout is <<Parmeter>> field
       // fact {all x: MultipleObjectFlowAlt | x.p1.outputs in x.p1.vout}
       Set<Field> fields = removeParameterFields(fieldWithInputs.get(field));
-      if (fields.size() > 0) toAlloy.addInOutClosureFact(ownerSig, field, fields, Alloy.oinputs);
+      if (fields.size() > 0)
+        toAlloy.addInOutClosureFact(ownerSig, field, fields, toAlloy.getLibrary().oinputs);
     }
     for (Field field : fieldWithOutputs.keySet()) {
       Set<Field> fields = removeParameterFields(fieldWithOutputs.get(field));
-      if (fields.size() > 0) toAlloy.addInOutClosureFact(ownerSig, field, fields, Alloy.ooutputs);
+      if (fields.size() > 0)
+        toAlloy.addInOutClosureFact(ownerSig, field, fields, toAlloy.getLibrary().ooutputs);
     }
     // add transferFieldNames for this Class(ne), now stepPorpertiedBySig has transfer fields later
     // used in OBMXMI1Alloy
@@ -2,22 +2,18 @@ package edu.gatech.gtri.obm.alloy.translator;
 
 import edu.mit.csail.sdg.ast.Expr;
 import edu.mit.csail.sdg.ast.Sig.PrimSig;
-import edu.umd.omgutil.sysml.sysml1.SysMLAdapter;
-import edu.umd.omgutil.sysml.sysml1.SysMLUtil;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.eclipse.emf.common.util.EList;
-import org.eclipse.uml2.uml.Class;
 import org.eclipse.uml2.uml.ConnectableElement;
 import org.eclipse.uml2.uml.Connector;
 import org.eclipse.uml2.uml.ConnectorEnd;
-import org.eclipse.uml2.uml.Constraint;
 import org.eclipse.uml2.uml.Element;
 
 /**
@@ -27,10 +23,6 @@ import org.eclipse.uml2.uml.Element;
  */
 public class ConnectorsHandler_OneOf {
 
-  /** omgutil's SysMLAdapter * */
-  SysMLAdapter sysmladapter;
-  /** omgutil's SysMLUtil * */
-  SysMLUtil sysmlUtil;
   /** a class to connect this class to Alloy for creation of facts * */
   ToAlloy toAlloy;
   /** a set of messages collected during handlOneOfConnectors method * */
@@ -39,48 +31,35 @@ public class ConnectorsHandler_OneOf {
   /**
    * A constructor
    *
-   * @param _sysmlUtil (SysMLUtil)
-   * @param _sysmladapter (SysMLAdapter)
    * @param _toAlloy (ToAlloy)
    * @param _messages (List<String>)
    */
-  protected ConnectorsHandler_OneOf(
-      SysMLUtil _sysmlUtil, SysMLAdapter _sysmladapter, ToAlloy _toAlloy, List<String> _messages) {
-    sysmlUtil = _sysmlUtil;
-    sysmladapter = _sysmladapter;
+  protected ConnectorsHandler_OneOf(ToAlloy _toAlloy, List<String> _messages) {
     toAlloy = _toAlloy;
     messages = _messages;
   }
 
   /**
-   * Find "OneOf" connectors from the given connectors and facts: bijectionFiltered,
+   * Add facts for "OneOf" connectors of the given analyzed connectors: bijectionFiltered,
    * functionFiltered, or inverseFunctionFiltered.
    *
    * @param _sigOfClass(PrimSig) - the owner signature of "OneOf" connector to be processed
-   * @param _classOfSig(Class) - the class created the owner signature
-   * @param _connectors (A set of Connectors) - the all connectors filtered by the given signature
+   * @param _classConnectors(ClassConnectors) - the analyzed connectors of the class created the
+   *     owner signature, having the class's OneOf rules and "OneOf" connectors
    * @return (Set<Connector>) - the "OneOf" connectors for the given _sigOfClass signature
    */
   protected Set<Connector> handleOneOfConnectors(
-      PrimSig _sigOfClass, Class _classOfSig, Set<org.eclipse.uml2.uml.Connector> _connectors) {
+      PrimSig _sigOfClass, ClassConnectors _classConnectors) {
 
-    // start handling one of connectors
-    // find sig's constraint
-    Set<Constraint> constraints = sysmlUtil.getAllRules(_classOfSig);
-    Set<EList<Element>> oneOfSets =
-        AlloyUtils.getOneOfRules(
-            constraints, sysmladapter); // EList<ConnectorEnd> [ [start, eat] or [order, end]]
-
-    // finding connectors with oneof
-    Set<Connector> oneOfConnectors = new HashSet<>();
-    for (Connector cn : _connectors) {
+    // EList<ConnectorEnd> [ [start, eat] or [order, end]]
+    Set<EList<Element>> oneOfSets = _classConnectors.getOneOfSets();
+    Set<Connector> oneOfConnectors = _classConnectors.getOneOfConnectors();
+    // the oneOfConnectors' ends in each oneOfSet
+    Map<EList<Element>, List<ConnectorEnd>> endsByOneOfSet = new IdentityHashMap<>();
+    for (Connector cn : oneOfConnectors) {
       for (ConnectorEnd ce : cn.getEnds()) {
-        for (EList<Element> oneOfSet : oneOfSets) {
-          Optional<Element> found = oneOfSet.stream().filter(e -> e == ce).findFirst();
-          if (!found.isEmpty()) {
-            oneOfConnectors.add(cn);
-          }
-        }
+        for (EList<Element> oneOfSet : _classConnectors.getOneOfSets(ce))
+          endsByOneOfSet.computeIfAbsent(oneOfSet, k -> new ArrayList<>()).add(ce);
       }
     }
     // For example FoodService-OFControlLoopFoodService - 3 connectors between
@@ -113,7 +92,11 @@ public class ConnectorsHandler_OneOf {
             .collect(Collectors.toSet());
 
     for (EList<Element> oneOfSet : oneOfSets) {
-      addFacts(_sigOfClass, oneOfSet, oneOfConnectors, oneSourceProperties, oneTargetProperties);
+      addFacts(
+          _sigOfClass,
+          endsByOneOfSet.getOrDefault(oneOfSet, Collections.emptyList()),
+          oneSourceProperties,
+          oneTargetProperties);
     }
     return oneOfConnectors;
   }
@@ -128,9 +111,9 @@ public class ConnectorsHandler_OneOf {
    * and inverseFunctionFiltered[happensBefore, eat, end] are added (order <-- eat --> end).
    *
    * @param _sigOfClass the owner sig of one of connectors
-   * @param _oneOfSet List of ConnectableElement both having oneOf constraint. Both should be
-   *     source-side or target-side.
-   * @param _oneOfConnectors the one of connectors if the signature.
+   * @param _oneOfEnds (List<ConnectorEnd>) - the ends of the sig's one of connectors in a oneOfSet
+   *     (List of ConnectableElement both having oneOf constraint). Both should be source-side or
+   *     target-side.
    * @param _oneSourceProperties (Set<ConnectableElement>) - a set of connectableElements of the
    *     sig's one of connectors which has only one outgoing.
    * @param _oneTargetProperties (Set<ConnectableElement>) - a set of connectableElements of the
@@ -138,8 +121,7 @@ public class ConnectorsHandler_OneOf {
    */
   private void addFacts(
       PrimSig _sigOfClass,
-      List<Element> _oneOfSet,
-      Set<Connector> _oneOfConnectors,
+      List<ConnectorEnd> _oneOfEnds,
       Set<ConnectableElement> _oneSourceProperties,
       Set<ConnectableElement> _oneTargetProperties) {
 
@@ -147,29 +129,25 @@ public class ConnectorsHandler_OneOf {
     List<ConnectableElement> targetsForAllOneOfConnectors = new ArrayList<>();
 
     boolean isSourceSideOneOf = false;
-    for (org.eclipse.uml2.uml.Connector cn : _oneOfConnectors) {
-      for (ConnectorEnd ce : cn.getEnds()) {
-        Optional<Element> found = _oneOfSet.stream().filter(e -> e == ce).findFirst();
-        if (!found.isEmpty()) {
-          List<ConnectableElement> ces = UML2Utils.getEndRolesForCEFirst(cn, ce);
-          if (ces == null) { // this should not happens
-            this.messages.add(
-                "A connector "
-                    + cn.getQualifiedName()
-                    + " does not have two connector ends, so ignored.");
-            return;
-          }
-          String definingEndName = ce.getDefiningEnd().getName();
-          if (definingEndName.equals("happensAfter")) {
-            isSourceSideOneOf = true; // source-sides is oneOf
-            sourcesForAllOneOfConnectors.add(ces.get(0));
-            targetsForAllOneOfConnectors.add(ces.get(1));
-          } else if (definingEndName.equals("happensBefore")) {
-            isSourceSideOneOf = false; // target-side is oneOf
-            sourcesForAllOneOfConnectors.add(ces.get(1)); // [eat, eat]
-            targetsForAllOneOfConnectors.add(ces.get(0)); // [order,end]
-          }
-        }
+    for (ConnectorEnd ce : _oneOfEnds) {
+      Connector cn = (Connector) ce.getOwner();
+      List<ConnectableElement> ces = UML2Utils.getEndRolesForCEFirst(cn, ce);
+      if (ces == null) { // this should not happens
+        this.messages.add(
+            "A connector "
+                + cn.getQualifiedName()
+                + " does not have two connector ends, so ignored.");
+        return;
+      }
+      String definingEndName = ce.getDefiningEnd().getName();
+      if (definingEndName.equals("happensAfter")) {
+        isSourceSideOneOf = true; // source-sides is oneOf
+        sourcesForAllOneOfConnectors.add(ces.get(0));
+        targetsForAllOneOfConnectors.add(ces.get(1));
+      } else if (definingEndName.equals("happensBefore")) {
+        isSourceSideOneOf = false; // target-side is oneOf
+        sourcesForAllOneOfConnectors.add(ces.get(1)); // [eat, eat]
+        targetsForAllOneOfConnectors.add(ces.get(0)); // [order,end]
       }
     }
 
@@ -206,7 +184,7 @@ public class ConnectorsHandler_OneOf {
     Expr beforeExpr = null;
     Expr afterExpr = null;
 
-    afterExpr = AlloyUtils.getFieldFromSigOrItsParents(_targetName, _sigOfClass);
+    afterExpr = this.toAlloy.getFieldFromSigOrItsParents(_targetName, _sigOfClass);
     List<String> sourceNames = // sorting source names alphabetically = how to be write out
         _sourcesForAllOneOfConnectors.stream()
             .map(e -> e.getName())
@@ -215,8 +193,8 @@ public class ConnectorsHandler_OneOf {
     for (String sourceName : sourceNames) {
       beforeExpr =
           beforeExpr == null
-              ? AlloyUtils.getFieldFromSigOrItsParents(sourceName, _sigOfClass)
-              : beforeExpr.plus(AlloyUtils.getFieldFromSigOrItsParents(sourceName, _sigOfClass));
+              ? this.toAlloy.getFieldFromSigOrItsParents(sourceName, _sigOfClass)
+              : beforeExpr.plus(this.toAlloy.getFieldFromSigOrItsParents(sourceName, _sigOfClass));
     }
 
     boolean allSourceOneOf = true;
@@ -236,7 +214,7 @@ public class ConnectorsHandler_OneOf {
       for (ConnectableElement ce : _oneSourceProperties) {
         // need fn a -> b or a ->c
         Expr beforeExpr_modified =
-            AlloyUtils.getFieldFromSigOrItsParents(ce.getName(), _sigOfClass); // start
+            this.toAlloy.getFieldFromSigOrItsParents(ce.getName(), _sigOfClass); // start
         this.toAlloy.addFunctionFilteredHappensBeforeFact(
             _sigOfClass, beforeExpr_modified, afterExpr); // order
       }
@@ -277,10 +255,10 @@ public class ConnectorsHandler_OneOf {
     for (String targetName : targetNames) {
       afterExpr =
           afterExpr == null
-              ? AlloyUtils.getFieldFromSigOrItsParents(targetName, _sigOfClass)
-              : afterExpr.plus(AlloyUtils.getFieldFromSigOrItsParents(targetName, _sigOfClass));
+              ? this.toAlloy.getFieldFromSigOrItsParents(targetName, _sigOfClass)
+              : afterExpr.plus(this.toAlloy.getFieldFromSigOrItsParents(targetName, _sigOfClass));
     }
-    beforeExpr = AlloyUtils.getFieldFromSigOrItsParents(_sourceName, _sigOfClass);
+    beforeExpr = this.toAlloy.getFieldFromSigOrItsParents(_sourceName, _sigOfClass);
 
     boolean allTargetOneOf = true; // default
     if (_oneTargetProperties.size() == targetsForAllOneOfConnectors.size()) {
@@ -303,7 +281,7 @@ public class ConnectorsHandler_OneOf {
       // inversefn a -> b or a -> c
       for (ConnectableElement ce : _oneTargetProperties) {
         Expr afterExpr_modified =
-            AlloyUtils.getFieldFromSigOrItsParents(ce.getName(), _sigOfClass); // end
+            this.toAlloy.getFieldFromSigOrItsParents(ce.getName(), _sigOfClass); // end
         this.toAlloy.addInverseFunctionFilteredHappensBeforeFact(
             _sigOfClass, beforeExpr, afterExpr_modified);
       }
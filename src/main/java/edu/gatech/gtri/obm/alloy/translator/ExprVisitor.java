@@ -307,12 +307,7 @@ public class ExprVisitor extends VisitQuery<String> {
       int numberOfFields = x.getFields().size();
 
       if (numberOfFields > 0) {
-        fieldAfterSig = true;
-
-        Map<String, List<Sig.Field>> fieldByType = new HashMap<>();
-        for (Sig.Field f : x.getFields()) {
-          fieldByType = sortFields(f, fieldByType);
-        }
+        Map<String, List<Sig.Field>> fieldByType = groupFieldsByType(x);
         String fields = "";
         StringBuilder sbb = new StringBuilder();
 
@@ -420,7 +415,34 @@ public class ExprVisitor extends VisitQuery<String> {
     return x.label;
   }
 
+  /**
+   * Create the string of the given fact as written in an alloy file (i.e., "fact {all x: A | no
+   * x.steps}"). Used to write facts one by one instead of visiting all facts as one ExprList.
+   *
+   * @param _fact (Expr) - a fact
+   * @return (String) - the fact in string
+   */
+  protected String visitFact(Expr _fact) {
+    isRootExprList = false;
+    return "fact {" + visitThis(_fact) + "}";
+  }
+
   // Utility function
+  /**
+   * Group the fields of the given signature by their types as written in the signature. Fields of
+   * the same type are written as "disj" fields unless one of them is in parameterFields.
+   *
+   * @param _sig (Sig) - the signature
+   * @return (Map<String, List<Field>>) - the fields by types
+   */
+  protected Map<String, List<Field>> groupFieldsByType(Sig _sig) {
+    fieldAfterSig = true;
+    Map<String, List<Field>> fieldByType = new HashMap<>();
+    for (Field f : _sig.getFields()) fieldByType = sortFields(f, fieldByType);
+    fieldAfterSig = false;
+    return fieldByType;
+  }
+
   /**
    * Add the given field to the given map as the value if the field's type is the key.
    *
@@ -0,0 +1,95 @@
+package edu.gatech.gtri.obm.alloy.translator;
+
+import edu.mit.csail.sdg.ast.Sig;
+import edu.mit.csail.sdg.ast.Sig.Field;
+import edu.mit.csail.sdg.ast.Sig.PrimSig;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * An index of fields by their labels per signature for a translation. Used to find a field of a
+ * signature or its ancestors without scanning Sig.getFields() (which copies all fields of the
+ * signature) at each level of the hierarchy every time.
+ *
+ * <p>Signatures and fields created for the translation are added to the index as they are created.
+ * Fields of other signatures (i.e., signatures in the library) are indexed when the signature is
+ * looked up for the first time.
+ */
+final class FieldIndex {
+
+  /** fields by labels per signature. A label maps to the first field having the label. */
+  private final Map<Sig, Map<String, Field>> fieldsBySig = new IdentityHashMap<>();
+
+  /**
+   * Add the given signature created without fields.
+   *
+   * @param _sig (Sig) - the created signature
+   */
+  void addSig(Sig _sig) {
+    fieldsBySig.putIfAbsent(_sig, new HashMap<>());
+  }
+
+  /**
+   * Add the given fields created for their signatures.
+   *
+   * @param _fields (Field[]) - the created fields
+   */
+  void addFields(Field... _fields) {
+    for (Field field : _fields) fieldsOf(field.sig).putIfAbsent(field.label, field);
+  }
+
+  /**
+   * Return a field of the given label in the given signature (not its ancestors).
+   *
+   * @param _label (String) - the field label looking for
+   * @param _sig (Sig) - the signature checked for having the field
+   * @return (Field) - the field if found, otherwise null
+   */
+  Field getField(String _label, Sig _sig) {
+    return fieldsOf(_sig).get(_label);
+  }
+
+  /**
+   * Return a field of the given label in the given signature's ancestors.
+   *
+   * @param _label (String) - the field label looking for
+   * @param _sig (PrimSig) - the signature whose ancestors are checked for having the field
+   * @return (Field) - the field found in the nearest ancestor, otherwise null
+   */
+  Field getFieldFromParents(String _label, PrimSig _sig) {
+    for (PrimSig sig = _sig.parent; sig != null; sig = sig.parent) {
+      Field field = getField(_label, sig);
+      if (field != null) return field;
+    }
+    return null;
+  }
+
+  /**
+   * Return a field of the given label in the given signature or its ancestors.
+   *
+   * @param _label (String) - the field label looking for
+   * @param _sig (PrimSig) - the signature checked for having the field
+   * @return (Field) - the field if found, otherwise null
+   */
+  Field getFieldFromSigOrParents(String _label, PrimSig _sig) {
+    Field field = getField(_label, _sig);
+    return field != null ? field : getFieldFromParents(_label, _sig);
+  }
+
+  /**
+   * Return the fields of the given signature by labels, indexing them if not indexed yet.
+   *
+   * @param _sig (Sig) - a signature
+   * @return (Map<String, Field>) - the fields by labels
+   */
+  private Map<String, Field> fieldsOf(Sig _sig) {
+    return fieldsBySig.computeIfAbsent(
+        _sig,
+        sig -> {
+          Map<String, Field> fields = new HashMap<>();
+          for (Field field : sig.getFields()) fields.putIfAbsent(field.label, field);
+          return fields;
+        });
+  }
+}
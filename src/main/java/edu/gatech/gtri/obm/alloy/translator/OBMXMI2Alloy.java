@@ -1,9 +1,11 @@
 package edu.gatech.gtri.obm.alloy.translator;
 
+import edu.mit.csail.sdg.ast.Command;
 import edu.mit.csail.sdg.ast.Expr;
 import edu.mit.csail.sdg.ast.Sig;
 import edu.mit.csail.sdg.ast.Sig.Field;
 import edu.mit.csail.sdg.ast.Sig.PrimSig;
+import edu.mit.csail.sdg.translator.A4Options;
 import edu.umd.omgutil.EMFUtil;
 import edu.umd.omgutil.UMLModelErrorException;
 import edu.umd.omgutil.sysml.sysml1.SysMLAdapter;
@@ -12,16 +14,34 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.uml2.uml.Class;
 import org.eclipse.uml2.uml.NamedElement;
+import org.eclipse.uml2.uml.Property;
+import org.eclipse.uml2.uml.UMLPackage;
 
 /**
  * A class to translate SysML Behavior Model in a xmi file into an alloy file.
@@ -43,19 +63,38 @@ import org.eclipse.uml2.uml.NamedElement;
  * @author Miyako Wilson, AE(ASDL) - Georgia Tech
  */
 public final class OBMXMI2Alloy {
+
+  /** The system property making UML2 cache derived features in a CacheAdapter for each thread */
+  static final String CACHE_ADAPTER_THREAD_LOCAL =
+      "org.eclipse.uml2.common.util.CacheAdapter.ThreadLocal";
+
   /** A class to collect all signatures, fields, and facts to be translated to an alloy file */
   private Alloy alloy;
   /** A class connect this and Alloy class */
   private ToAlloy toAlloy;
-  /** omgutil SysMLUtil - Util method from omgutil */
-  private SysMLUtil sysMLUtil;
-  /** omgutil SysMLAdapter - Adapter for SysML from omgutil */
-  private SysMLAdapter sysMLAdapter;
+  /** omgutil SysMLUtil - Util method from omgutil, remembering results for the loaded xmi file */
+  private CachedSysMLUtil sysMLUtil;
+  /** omgutil SysMLAdapter - Adapter for SysML from omgutil, remembering mapped objects */
+  private CachedSysMLAdapter sysMLAdapter;
+  /** The counts of hits and misses of all CachedSysMLAdapters for the loaded xmi file */
+  private CachedSysMLAdapter.Statistics sysMLAdapterStatistics;
   /**
    * omgUtil Resource - Resource from omgutil - used to get Class object from the xmilFile using
    * EMFUtil
    */
   private Resource resource;
+  /** The resource set containing the resource and the resources it depends on */
+  private ResourceSet resourceSet;
+  /** The loaded xmi file */
+  private File xmiFile;
+  /** Stereotype applications in the resource set - created when a xmi file is loaded */
+  private StereotypeIndex stereotypeIndex;
+  /** NamedElements in the resource by their qualified names - created when a xmi file is loaded */
+  private Map<String, NamedElement> namedElementsByQualifiedName;
+  /** An on-disk cache of loaded xmi files. null if not using the cache. */
+  private XmiResourceCache xmiResourceCache;
+  /** An executor analyzing connectors of classes in parallel. null to analyze them in order. */
+  private ExecutorService connectorAnalysisExecutor;
   /** errorMessages collected during the translation. */
   List<String> errorMessages;
   /** messages collected during the translation. */
@@ -71,11 +110,73 @@ public final class OBMXMI2Alloy {
    */
   public OBMXMI2Alloy(String _alloyLibPath) {
     this.alloy = new Alloy(_alloyLibPath);
+    this.errorMessages = new ArrayList<>();
+    this.messages = new ArrayList<>();
+  }
+
+  /**
+   * A constructor using the required library (Transfer.als and utilities(folder)) included in the
+   * translator jar.
+   */
+  public OBMXMI2Alloy() {
+    this.alloy = new Alloy();
+    this.errorMessages = new ArrayList<>();
+    this.messages = new ArrayList<>();
+  }
+
+  /**
+   * Make UML2 cache derived features (i.e., inherited members) in a CacheAdapter for each thread so
+   * that createAlloyFiles translates classes concurrently. This sets the system property
+   * org.eclipse.uml2.common.util.CacheAdapter.ThreadLocal, which changes UML2 for the whole JVM and
+   * is read only once when UML2 is initialized. Call this at the start of an application before any
+   * model is loaded, or set the property on the command line (-D) instead. Without the property,
+   * createAlloyFiles translates one class at a time.
+   */
+  public static void enableConcurrentTranslation() {
+    System.setProperty(CACHE_ADAPTER_THREAD_LOCAL, "true");
+  }
+
+  /**
+   * Check if UML2 is set to cache derived features for each thread (see
+   * enableConcurrentTranslation).
+   *
+   * @return (boolean) - true if classes can be translated concurrently, otherwise false
+   */
+  static boolean isConcurrentTranslationEnabled() {
+    return Boolean.getBoolean(CACHE_ADAPTER_THREAD_LOCAL);
+  }
+
+  /**
+   * Set a directory to cache xmi files loaded by loadXmiFile in a binary format. When the same xmi
+   * file (same content) is loaded again, the cached entry is loaded instead of parsing the xmi file
+   * for the translator. omgutil's SysMLAdapter still parses the xmi file (see XmiResourceCache).
+   *
+   * @param _cacheDirectory(File) - the directory for cache entries. null to stop using the cache.
+   */
+  public void setXmiCacheDirectory(File _cacheDirectory) {
+    this.xmiResourceCache = _cacheDirectory == null ? null : new XmiResourceCache(_cacheDirectory);
+  }
+
+  /**
+   * Set an executor to analyze the connectors of the classes of a translation in parallel. The
+   * analyses are merged in the order of the classes before fields and facts are created, so the
+   * alloy module is the same as analyzing them one at a time. The executor is used only if UML2
+   * caches derived features for each thread (see enableConcurrentTranslation). It must not be the
+   * executor of createAlloyFiles, whose threads wait for the analyses.
+   *
+   * @param _executor(ExecutorService) - the executor to analyze connectors. null to analyze them in
+   *     the translating thread.
+   */
+  public void setConnectorAnalysisExecutor(ExecutorService _executor) {
+    this.connectorAnalysisExecutor = _executor;
   }
 
   /**
    * loading xmiFile to preparing for translation
    *
+   * <p>The xmi file is parsed by EMF for the translator and parsed again by omgutil's SysMLAdapter,
+   * which omgutil only creates from a file.
+   *
    * <p><img src="doc-files/OBMXMI2Alloy_loadXmiFile.svg"/>
    *
    * @param _xmiFile(File) - xmiFile containing classes you like to translate to an alloy file.
@@ -85,15 +186,40 @@ public final class OBMXMI2Alloy {
    */
   public boolean loadXmiFile(File _xmiFile) throws FileNotFoundException, UMLModelErrorException {
 
+    this.errorMessages = new ArrayList<>();
     try {
       ResourceSet rs = EMFUtil.createResourceSet();
-      this.resource =
-          EMFUtil.loadResourceWithDependencies(
-              rs, URI.createFileURI(_xmiFile.getAbsolutePath()), null);
+      String cacheKey = null;
+      this.resource = null;
+      if (this.xmiResourceCache != null) {
+        try {
+          cacheKey = this.xmiResourceCache.keyOf(_xmiFile);
+          this.resource = this.xmiResourceCache.load(rs, _xmiFile, cacheKey);
+        } catch (IOException e) {
+          cacheKey = null; // not using the cache - loaded from the xmi file below
+        }
+      }
+      boolean loadedFromXmiFile = this.resource == null;
+      if (loadedFromXmiFile)
+        this.resource =
+            EMFUtil.loadResourceWithDependencies(
+                rs, URI.createFileURI(_xmiFile.getAbsolutePath()), null);
+      // resolve all proxies now so the model is only read (not modified by resolving proxies)
+      // while translating, also by concurrent translations of createAlloyFiles
+      EcoreUtil.resolveAll(rs);
+      // saved with the resources it depends on resolved
+      if (loadedFromXmiFile && cacheKey != null)
+        this.xmiResourceCache.save(this.resource, cacheKey);
+      this.resourceSet = rs;
+      this.xmiFile = _xmiFile;
+      this.namedElementsByQualifiedName = createQualifiedNameIndex(this.resource);
+      this.stereotypeIndex = new StereotypeIndex(rs);
       // omgutil SysMLUtil - used to create the omgutil ResourceSet used during the translation
-      this.sysMLUtil = new SysMLUtil(rs);
+      this.sysMLUtil = new CachedSysMLUtil(new SysMLUtil(rs));
       // omgutil's SysMLAdapter to be used in ConnectorHandler
-      this.sysMLAdapter = new SysMLAdapter(_xmiFile, null);
+      this.sysMLAdapterStatistics = new CachedSysMLAdapter.Statistics();
+      this.sysMLAdapter =
+          new CachedSysMLAdapter(new SysMLAdapter(_xmiFile, null), this.sysMLAdapterStatistics);
     } catch (FileNotFoundException e) {
       this.errorMessages.add(
           "Failed to initialize the translator. Make sure xmiFile exists in "
@@ -112,6 +238,80 @@ public final class OBMXMI2Alloy {
     return true;
   }
 
+  /**
+   * Create a map of all NamedElements having a qualified name in the given resource by their
+   * qualified names. When more than one element has the same qualified name, the first one in the
+   * containment tree is used.
+   *
+   * @param _resource(Resource) - the loaded resource of a xmi file
+   * @return (Map<String, NamedElement>) - a map of NamedElements by qualified names
+   */
+  private static Map<String, NamedElement> createQualifiedNameIndex(Resource _resource) {
+    Map<String, NamedElement> index = new HashMap<>();
+    for (TreeIterator<EObject> it = _resource.getAllContents(); it.hasNext(); ) {
+      EObject eo = it.next();
+      if (eo instanceof NamedElement) {
+        String qualifiedName = ((NamedElement) eo).getQualifiedName();
+        if (qualifiedName != null) index.putIfAbsent(qualifiedName, (NamedElement) eo);
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Get NamedElements in the loaded xmi file by their qualified names.
+   *
+   * @return (Map<String, NamedElement>) - an unmodifiable map of NamedElements by qualified names.
+   *     An empty map if no xmi file is loaded.
+   */
+  public Map<String, NamedElement> getNamedElementsByQualifiedName() {
+    return this.namedElementsByQualifiedName == null
+        ? Collections.emptyMap()
+        : Collections.unmodifiableMap(this.namedElementsByQualifiedName);
+  }
+
+  /**
+   * Stream qualified names of classes(UML:Class, not its sub types like Activity) in the loaded xmi
+   * file in the order contained in the file. The names can be used for createAlloyFile method.
+   * Classes are streamed from the loaded resource without loading the xmi file again.
+   *
+   * @param _translatableOnly(boolean) - true to stream only classes having at least one (owned or
+   *     inherited) property with Model::OBM::Step, Model::OBM::Parameter or
+   *     SysML::ParticipantProperty stereotype recognized by ClassesHandler, false for all classes.
+   * @return (Stream<String>) - a stream of qualified names. An empty stream if no xmi file is
+   *     loaded.
+   */
+  public Stream<String> streamClassQualifiedNames(boolean _translatableOnly) {
+    if (this.resource == null) return Stream.empty();
+    Stream<EObject> contents =
+        StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                this.resource.getAllContents(), Spliterator.ORDERED | Spliterator.NONNULL),
+            false);
+    return contents
+        .filter(eo -> eo.eClass() == UMLPackage.Literals.CLASS)
+        .map(eo -> (Class) eo)
+        .filter(c -> !_translatableOnly || hasOBMProperty(c))
+        .map(c -> c.getQualifiedName())
+        .filter(qn -> qn != null);
+  }
+
+  /**
+   * Check if the given class has a property (owned or inherited) with Model::OBM::Step,
+   * Model::OBM::Parameter or SysML::ParticipantProperty stereotype.
+   *
+   * @param _class(Class) - a class to check
+   * @return (boolean) - true if having such a property, otherwise false
+   */
+  private boolean hasOBMProperty(Class _class) {
+    for (Property p : _class.getAllAttributes()) {
+      if (stereotypeIndex.isApplied(p, ClassesHandler.STEREOTYPE_STEP)
+          || stereotypeIndex.isApplied(p, ClassesHandler.STEREOTYPE_PAREMETER)
+          || stereotypeIndex.isApplied(p, ClassesHandler.STEREOTYPE_PATICIPANT)) return true;
+    }
+    return false;
+  }
+
   /**
    * Create an alloy output file of the qualifideName class/behavior model in the xml file. If this
    * method return false, you may use getErrorMessages() to know why cause failure.
@@ -126,26 +326,398 @@ public final class OBMXMI2Alloy {
    */
   public boolean createAlloyFile(String _qualifiedName, File _outputFile) {
 
+    if (_outputFile == null) {
+      this.errorMessages = new ArrayList<>();
+      this.messages = new ArrayList<>();
+      this.errorMessages.add("No output file is given.");
+      return false;
+    }
+    toAlloy = new ToAlloy(alloy);
+    TranslationResult result =
+        translate(_qualifiedName, _outputFile, null, toAlloy, sysMLUtil, sysMLAdapter);
+    this.errorMessages = new ArrayList<>(result.getErrorMessages());
+    this.messages = new ArrayList<>(result.getMessages());
+    return result.isSuccess();
+  }
+
+  /**
+   * Translate the qualifideName class/behavior model in the xml file and write the alloy module to
+   * the given sink instead of a file (i.e., a StringBuilder or a Writer of a server response). The
+   * text written is the same as the file created by createAlloyFile. If this method return false,
+   * you may use getErrorMessages() to know why cause failure. A part of the module may have been
+   * written to the sink when failed to write.
+   *
+   * @param _qualifiedName(String) - a qualifiedName of a UML:Class for translation (ie.,
+   *     Model::FoodService::OFSingleFoodService)
+   * @param _sink(Appendable) - the sink the alloy module is written to. Not closed by this method.
+   * @return (boolean) - true if the alloy module is written to the given sink; false if fails.
+   */
+  public boolean createAlloy(String _qualifiedName, Appendable _sink) {
+
     toAlloy = new ToAlloy(alloy);
+    TranslationResult result =
+        translate(_qualifiedName, null, _sink, toAlloy, sysMLUtil, sysMLAdapter);
+    this.errorMessages = new ArrayList<>(result.getErrorMessages());
+    this.messages = new ArrayList<>(result.getMessages());
+    return result.isSuccess();
+  }
+
+  /**
+   * Translate the qualifideName class/behavior model in the xml file to signatures and facts to be
+   * analyzed by Alloy without writing and parsing an alloy file. If this method return null, you
+   * may use getErrorMessages() to know why cause failure.
+   *
+   * <p>The alloy library is parsed again from memory for each module (see
+   * AlloyLibrary.loadForAnalysis). The time it adds to a translation is the difference between this
+   * method and translateToString printed by obmtest.TranslatedModuleBenchmark.
+   *
+   * @param _qualifiedName(String) - a qualifiedName of a UML:Class for translation (ie.,
+   *     Model::FoodService::OFSingleFoodService)
+   * @return (TranslatedModule) - the translated signatures and facts linked against the library;
+   *     null if fails.
+   */
+  public TranslatedModule createTranslatedModule(String _qualifiedName) {
+
     this.errorMessages = new ArrayList<>();
     this.messages = new ArrayList<>();
+    if (this.resource == null) {
+      this.errorMessages.add("No xmi file is loaded.");
+      return null;
+    }
+    // a library of its own - the analysis reaches all signatures created for the library
+    Alloy analyzedAlloy = new Alloy(alloy.getLibrary().loadForAnalysis());
+    toAlloy = new ToAlloy(analyzedAlloy);
+    Set<Field> parameterFields =
+        createAlloy(
+            _qualifiedName, toAlloy, sysMLUtil, sysMLAdapter, this.errorMessages, this.messages);
+    return parameterFields == null ? null : new TranslatedModule(analyzedAlloy, parameterFields);
+  }
+
+  /**
+   * Translate the qualifideName class/behavior model in the xml file and execute the standard run
+   * command for the class (see TranslatedModule.createRunCommands) using the pure-Java SAT4J solver
+   * to check if the behavior is executable. If this method return null, you may use
+   * getErrorMessages() to know why cause failure.
+   *
+   * @param _qualifiedName(String) - a qualifiedName of a UML:Class for translation (ie., Model::4.1
+   *     Basic Examples::4.1.1 Time Orderings::SimpleSequence)
+   * @param _scope(int) - the overall scope of the command (i.e., 6)
+   * @return (List<SolveResult>) - SAT/UNSAT with the translation and solve times of each command;
+   *     null if failed to translate.
+   */
+  public List<SolveResult> solve(String _qualifiedName, int _scope) {
+    TranslatedModule module = createTranslatedModule(_qualifiedName);
+    if (module == null) return null;
+    A4Options options = new A4Options();
+    options.solver = A4Options.SatSolver.SAT4J;
+    List<SolveResult> results = new ArrayList<>();
+    for (Map.Entry<String, Command> command : module.createRunCommands(_scope).entrySet()) {
+      SolveResult result = module.solve(command.getKey(), command.getValue(), options);
+      if (result.getError() != null) this.errorMessages.add(result.toString());
+      else this.messages.add(result.toString());
+      results.add(result);
+    }
+    return results;
+  }
+
+  /**
+   * Translate the qualifideName class/behavior model in the xml file and execute the standard run
+   * command for the class using the SAT4J solver from the given minimal scope, growing the scope by
+   * the given step until an instance is found or the scope exceeds the given ceiling (see
+   * TranslatedModule.escalate). If this method return null, you may use getErrorMessages() to know
+   * why cause failure.
+   *
+   * @param _qualifiedName(String) - a qualifiedName of a UML:Class for translation (ie., Model::4.1
+   *     Basic Examples::4.1.1 Time Orderings::SimpleSequence)
+   * @param _minScope(int) - the overall scope of the first step (i.e., 1)
+   * @param _maxScope(int) - the ceiling of the overall scope (i.e., 12)
+   * @param _step(int) - the scope added at each step (i.e., 1)
+   * @return (List<SolveReport>) - the translation and solve times of each step for each command;
+   *     null if failed to translate.
+   */
+  public List<SolveReport> solveWithScopeEscalation(
+      String _qualifiedName, int _minScope, int _maxScope, int _step) {
+    TranslatedModule module = createTranslatedModule(_qualifiedName);
+    if (module == null) return null;
+    A4Options options = new A4Options();
+    options.solver = A4Options.SatSolver.SAT4J;
+    List<SolveReport> reports = new ArrayList<>();
+    for (Map.Entry<String, Command> command : module.createRunCommands(_minScope).entrySet()) {
+      SolveReport report =
+          module.escalate(
+              command.getKey(), command.getValue(), _minScope, _maxScope, _step, options);
+      if (report.getFailedCount() > 0) this.errorMessages.add(report.toString());
+      else this.messages.add(report.toString());
+      reports.add(report);
+    }
+    return reports;
+  }
 
-    Set<Field> parameterFields = null;
-    if ((parameterFields = createAlloy(_qualifiedName)) != null) {
-      try {
-        boolean success = toAlloy.createAlloyFile(_outputFile, parameterFields);
-        if (success) this.messages.add(_outputFile.getAbsolutePath() + " is created");
-        else
-          this.errorMessages.add(
-              "Failed to create the alloy file as "
-                  + _outputFile.getAbsolutePath()
-                  + ". May not have write permission.");
-        return success;
-      } catch (IOException e) {
-        this.errorMessages.add("Failed to translate the alloy file: " + e.getMessage());
+  /**
+   * Translate the qualifideName class/behavior model in the xml file to the text of an alloy module
+   * without creating a file. If this method return null, you may use getErrorMessages() to know why
+   * cause failure.
+   *
+   * @param _qualifiedName(String) - a qualifiedName of a UML:Class for translation (ie.,
+   *     Model::FoodService::OFSingleFoodService)
+   * @return (String) - the alloy module; null if fails.
+   */
+  public String translateToString(String _qualifiedName) {
+    StringBuilder text = new StringBuilder();
+    return createAlloy(_qualifiedName, text) ? text.toString() : null;
+  }
+
+  /**
+   * Create alloy files of the given classes in the loaded xmi file concurrently using the given
+   * executor. Each class is translated with its own working state (Alloy and ToAlloy objects) over
+   * the loaded model and the alloy library shared by all translations, so the results are the same
+   * as calling createAlloyFile for each class.
+   *
+   * <p>The loaded model is only read during the translations. omgutil's SysMLAdapter and SysMLUtil
+   * of the loaded model are shared by all threads of the executor, so the xmi file is not parsed
+   * again for each thread. omgutil is called by one thread at a time while the remembered results
+   * are returned without waiting (see CachedSysMLAdapter and CachedSysMLUtil), so the first calls
+   * of omgutil for a model are not sped up by more threads. UML2 caches derived features in a
+   * CacheAdapter shared by all threads unless enableConcurrentTranslation is called before the
+   * model is loaded. Without it, the classes are translated one at a time on the executor.
+   *
+   * @param _outputFilesByQualifiedName(Map<String, File>) - output alloy files by qualified names
+   *     of classes to be translated. A class mapped to null is translated in memory and its alloy
+   *     module is returned by TranslationResult.getText().
+   * @param _executor(ExecutorService) - the executor to run translations (i.e.,
+   *     Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()))
+   * @return (List<TranslationResult>) - results in the iteration order of the given map
+   * @throws InterruptedException - interrupted while waiting for translations. Translations not
+   *     started yet are cancelled.
+   */
+  public List<TranslationResult> createAlloyFiles(
+      Map<String, File> _outputFilesByQualifiedName, ExecutorService _executor)
+      throws InterruptedException {
+    return createAlloyFiles(_outputFilesByQualifiedName, _executor, null);
+  }
+
+  /**
+   * Create alloy files of the given classes concurrently notifying the given listener each time a
+   * translation is finished.
+   *
+   * @param _outputFilesByQualifiedName(Map<String, File>) - output alloy files by qualified names
+   *     of classes to be translated
+   * @param _executor(ExecutorService) - the executor to run translations
+   * @param _listener(TranslationListener) - the listener notified of finished translations. null to
+   *     not notify.
+   * @return (List<TranslationResult>) - results in the iteration order of the given map
+   * @throws InterruptedException - interrupted while waiting for translations
+   * @see #createAlloyFiles(Map, ExecutorService)
+   */
+  public List<TranslationResult> createAlloyFiles(
+      Map<String, File> _outputFilesByQualifiedName,
+      ExecutorService _executor,
+      TranslationListener _listener)
+      throws InterruptedException {
+
+    int total = _outputFilesByQualifiedName.size();
+    AtomicInteger finished = new AtomicInteger();
+    // UML2's CacheAdapter shared by all threads is not made for concurrent use
+    Object translationLock = isConcurrentTranslationEnabled() ? null : new Object();
+    List<Future<TranslationResult>> futures = new ArrayList<>();
+    for (Map.Entry<String, File> entry : _outputFilesByQualifiedName.entrySet()) {
+      String qualifiedName = entry.getKey();
+      File outputFile = entry.getValue();
+      futures.add(
+          _executor.submit(
+              () -> {
+                TranslationResult result;
+                if (translationLock == null) result = translateTask(qualifiedName, outputFile);
+                else {
+                  synchronized (translationLock) {
+                    result = translateTask(qualifiedName, outputFile);
+                  }
+                }
+                if (_listener != null)
+                  _listener.translated(result, finished.incrementAndGet(), total);
+                return result;
+              }));
+    }
+
+    List<TranslationResult> results = new ArrayList<>();
+    Iterator<Map.Entry<String, File>> entries = _outputFilesByQualifiedName.entrySet().iterator();
+    try {
+      for (Future<TranslationResult> future : futures) {
+        Map.Entry<String, File> entry = entries.next();
+        try {
+          results.add(future.get());
+        } catch (ExecutionException e) {
+          results.add(failedResult(entry.getKey(), entry.getValue(), e.getCause(), 0));
+        }
       }
+    } catch (InterruptedException e) {
+      for (Future<TranslationResult> future : futures) future.cancel(false);
+      throw e;
     }
-    return false; // failed to translate
+    return results;
+  }
+
+  /**
+   * Translate the given class with its own working state for createAlloyFiles.
+   *
+   * @param _qualifiedName(String) - a qualifiedName of a UML:Class for translation
+   * @param _outputFile(File) - the output alloy file. null to translate in memory.
+   * @return (TranslationResult) - the result of the translation
+   */
+  private TranslationResult translateTask(String _qualifiedName, File _outputFile) {
+    try {
+      StringBuilder text = _outputFile == null ? new StringBuilder() : null;
+      TranslationResult result =
+          translate(
+              _qualifiedName,
+              _outputFile,
+              text,
+              new ToAlloy(new Alloy(alloy.getLibrary())),
+              sysMLUtil,
+              sysMLAdapter);
+      return text != null && result.isSuccess()
+          ? new TranslationResult(result, text.toString())
+          : result;
+    } catch (RuntimeException e) {
+      return failedResult(_qualifiedName, _outputFile, e, 0);
+    }
+  }
+
+  /**
+   * Create alloy files of the given classes in the loaded xmi file concurrently using the given
+   * executor. The alloy files are created in the given directory and named as the class names
+   * (i.e., Loop.als). When more than one class have the same name, "_2", "_3"... are added to the
+   * file names of the second and later classes.
+   *
+   * @param _qualifiedNames(Collection<String>) - qualified names of classes to be translated
+   * @param _outputDirectory(File) - the directory the alloy files are created in
+   * @param _executor(ExecutorService) - the executor to run translations
+   * @param _listener(TranslationListener) - the listener notified of finished translations. null to
+   *     not notify.
+   * @return (List<TranslationResult>) - results in the iteration order of the given names
+   * @throws InterruptedException - interrupted while waiting for translations
+   * @see #createAlloyFiles(Map, ExecutorService)
+   */
+  public List<TranslationResult> createAlloyFiles(
+      Collection<String> _qualifiedNames,
+      File _outputDirectory,
+      ExecutorService _executor,
+      TranslationListener _listener)
+      throws InterruptedException {
+    Map<String, File> outputFilesByQualifiedName = new LinkedHashMap<>();
+    Set<String> fileNames = new HashSet<>();
+    for (String qualifiedName : _qualifiedNames) {
+      if (outputFilesByQualifiedName.containsKey(qualifiedName)) continue;
+      // the class name without characters not allowed in file names
+      String name =
+          qualifiedName
+              .substring(qualifiedName.lastIndexOf(':') + 1)
+              .replaceAll("[\\\\/*?\"<>|]", "_");
+      String fileName = name + ".als";
+      for (int i = 2; !fileNames.add(fileName.toLowerCase()); i++)
+        fileName = name + "_" + i + ".als";
+      outputFilesByQualifiedName.put(qualifiedName, new File(_outputDirectory, fileName));
+    }
+    return createAlloyFiles(outputFilesByQualifiedName, _executor, _listener);
+  }
+
+  /**
+   * Translate the given classes in the loaded xmi file concurrently using the given executor
+   * without creating files. The alloy module of each class is returned by
+   * TranslationResult.getText() of its result.
+   *
+   * @param _qualifiedNames(Collection<String>) - qualified names of classes to be translated
+   * @param _executor(ExecutorService) - the executor to run translations
+   * @param _listener(TranslationListener) - the listener notified of finished translations. null to
+   *     not notify.
+   * @return (List<TranslationResult>) - results in the iteration order of the given names
+   * @throws InterruptedException - interrupted while waiting for translations
+   * @see #createAlloyFiles(Map, ExecutorService)
+   */
+  public List<TranslationResult> translateToStrings(
+      Collection<String> _qualifiedNames, ExecutorService _executor, TranslationListener _listener)
+      throws InterruptedException {
+    Map<String, File> outputFilesByQualifiedName = new LinkedHashMap<>();
+    for (String qualifiedName : _qualifiedNames)
+      outputFilesByQualifiedName.put(qualifiedName, null);
+    return createAlloyFiles(outputFilesByQualifiedName, _executor, _listener);
+  }
+
+  /**
+   * Translate the given class to an alloy file or a sink using the given working state and omgutil
+   * objects. Messages are collected in the returned result instead of this object so that
+   * translations can run concurrently.
+   *
+   * @param _qualifiedName(String) - a qualifiedName of a UML:Class for translation
+   * @param _outputFile(File) - the output alloy file. null when written to the sink.
+   * @param _sink(Appendable) - the sink the alloy module is written to when no output file is given
+   * @param _toAlloy(ToAlloy) - the working state of this translation
+   * @param _sysMLUtil(CachedSysMLUtil) - omgutil SysMLUtil of the loaded xmi file
+   * @param _sysMLAdapter(CachedSysMLAdapter) - omgutil SysMLAdapter of the loaded xmi file
+   * @return (TranslationResult) - the result of the translation
+   */
+  private TranslationResult translate(
+      String _qualifiedName,
+      File _outputFile,
+      Appendable _sink,
+      ToAlloy _toAlloy,
+      CachedSysMLUtil _sysMLUtil,
+      CachedSysMLAdapter _sysMLAdapter) {
+
+    long start = System.nanoTime();
+    List<String> errorMessages = new ArrayList<>();
+    List<String> messages = new ArrayList<>();
+    boolean success = false;
+    if (this.resource == null) errorMessages.add("No xmi file is loaded.");
+    else {
+      Set<Field> parameterFields =
+          createAlloy(_qualifiedName, _toAlloy, _sysMLUtil, _sysMLAdapter, errorMessages, messages);
+      if (parameterFields != null && _outputFile == null) {
+        try {
+          _toAlloy.createAlloy(_sink, parameterFields);
+          success = true;
+        } catch (IOException e) {
+          errorMessages.add("Failed to write the alloy module: " + e.getMessage());
+        }
+      } else if (parameterFields != null) {
+        try {
+          success = _toAlloy.createAlloyFile(_outputFile, parameterFields);
+          if (success) messages.add(_outputFile.getAbsolutePath() + " is created");
+          else
+            errorMessages.add(
+                "Failed to create the alloy file as "
+                    + _outputFile.getAbsolutePath()
+                    + ". May not have write permission.");
+        } catch (IOException e) {
+          errorMessages.add("Failed to translate the alloy file: " + e.getMessage());
+        }
+      }
+    }
+    return new TranslationResult(
+        _qualifiedName,
+        _outputFile,
+        success,
+        messages,
+        errorMessages,
+        _toAlloy.getTraversalStatistics(),
+        System.nanoTime() - start);
+  }
+
+  /**
+   * Create a result of a translation failed by the given exception.
+   *
+   * @param _qualifiedName(String) - a qualifiedName of a UML:Class for translation
+   * @param _outputFile(File) - the output alloy file
+   * @param _cause(Throwable) - the exception
+   * @param _elapsedNanos(long) - the time taken by the translation in nanoseconds
+   * @return (TranslationResult) - the failed result
+   */
+  private static TranslationResult failedResult(
+      String _qualifiedName, File _outputFile, Throwable _cause, long _elapsedNanos) {
+    List<String> errorMessages = new ArrayList<>();
+    errorMessages.add("Failed to translate " + _qualifiedName + ": " + _cause);
+    return new TranslationResult(
+        _qualifiedName, _outputFile, false, new ArrayList<>(), errorMessages, null, _elapsedNanos);
   }
 
   /**
@@ -153,30 +725,44 @@ public final class OBMXMI2Alloy {
    *
    * @param _classQualifiedName(String) - the qualified name string of a class contained in the xml
    *     file (i.e., Model::4.1 Basic Examples::4.1.2 Loop::Loop)
+   * @param _toAlloy(ToAlloy) - the working state of this translation
+   * @param _sysMLUtil(CachedSysMLUtil) - omgutil SysMLUtil of the loaded xmi file
+   * @param _sysMLAdapter(CachedSysMLAdapter) - omgutil SysMLAdapter of the loaded xmi file
+   * @param _errorMessages(List<String>) - a list to add error messages
+   * @param _messages(List<String>) - a list to add messages
    * @return (Set<Field>) - parameterfields used by calling method to write out disj signature
    *     fields to an alloy file.
    */
-  private Set<Field> createAlloy(String _classQualifiedName) {
-    // using omgUtil get NamedElement to translate
-    NamedElement mainNamedElement = EMFUtil.getNamedElement(resource, _classQualifiedName);
+  private Set<Field> createAlloy(
+      String _classQualifiedName,
+      ToAlloy _toAlloy,
+      CachedSysMLUtil _sysMLUtil,
+      CachedSysMLAdapter _sysMLAdapter,
+      List<String> _errorMessages,
+      List<String> _messages) {
+    // get NamedElement to translate from the index, using omgUtil if not in the index
+    NamedElement mainNamedElement = namedElementsByQualifiedName.get(_classQualifiedName);
+    if (mainNamedElement == null)
+      mainNamedElement = EMFUtil.getNamedElement(resource, _classQualifiedName);
     // the NamedElement must be Class to able to translate
     if (mainNamedElement == null) {
-      this.errorMessages.add(_classQualifiedName + " not found.");
+      _errorMessages.add(_classQualifiedName + " not found.");
       return null;
     } else if (!(mainNamedElement instanceof Class)) {
-      this.errorMessages.add(
-          _classQualifiedName + " is not Class. Not able to translate to Alloy.");
+      _errorMessages.add(_classQualifiedName + " is not Class. Not able to translate to Alloy.");
       return null;
     }
     // cast to Class
     Class mainClass = (Class) mainNamedElement;
 
     // ClasssesHandler - from main class creates Signatures and Fields for the Alloy object
-    ClassesHandler classesHandler = new ClassesHandler(mainClass, this.toAlloy, sysMLUtil);
+    ClassesHandler classesHandler =
+        new ClassesHandler(mainClass, _toAlloy, _sysMLUtil, stereotypeIndex);
     if (!classesHandler.process()) {
-      this.errorMessages.addAll(classesHandler.getErrorMessages());
+      _errorMessages.addAll(classesHandler.getErrorMessages());
       return null;
     }
+    _toAlloy.setTraversalStatistics(classesHandler.getTraversalStatistics());
     // get necessary information collected by ClassesHandler.process method
     Set<Field> parameterFields =
         classesHandler.getParameterFields(); // fields map from property with STEREOTYPE_PAREMETER
@@ -197,11 +783,18 @@ public final class OBMXMI2Alloy {
     // ConnectorsHandler - analyzing connectors for classes to create facts for the Alloy object
     ConnectorsHandler connectorsHandler =
         new ConnectorsHandler(
-            sysMLAdapter, sysMLUtil, leafSigs, this.toAlloy, parameterFields, stepPropertiesBySig);
+            _sysMLAdapter,
+            _sysMLUtil,
+            stereotypeIndex,
+            leafSigs,
+            _toAlloy,
+            parameterFields,
+            stepPropertiesBySig,
+            isConcurrentTranslationEnabled() ? connectorAnalysisExecutor : null);
     connectorsHandler.process(classInHierarchyForMain, allNamedElements);
 
-    // add messages collected during the connectorshandler process to this.messages
-    this.messages.addAll(connectorsHandler.getMessages());
+    // add messages collected during the connectorshandler process to _messages
+    _messages.addAll(connectorsHandler.getMessages());
 
     // get necessary information colleced by ConnectorsHandler.process method
     // a set of signature names having a transfer connector with same input and output type.
@@ -246,17 +839,17 @@ public final class OBMXMI2Alloy {
     // add mainSig's inherited transfer fields to step Properties for the mainSig
     stepPropertiesBySig.get(mainSigLabel).addAll(mainSigInheritingTransferFields);
     // add facts(inheriting transfer related) for main signature to Alloy using toAlloy
-    toAlloy.addFacts(mainSigLabel, mainSigInheritingTransferRelatedFacts);
+    _toAlloy.addFacts(mainSigLabel, mainSigInheritingTransferRelatedFacts);
 
     // add {no steps}, {x.steps in ...}, {... x.steps} facts to the Alloy object
-    Set<Sig> noStepsSigs = toAlloy.addStepsFacts(stepPropertiesBySig, leafSigs);
+    Set<Sig> noStepsSigs = _toAlloy.addStepsFacts(stepPropertiesBySig, leafSigs);
     // if {no x.steps} and signatures with transfer field
 
     // combing noStepsSigs and sigWithTransferFields and pass to toAlloy.addNoTransferInXStepsFact
     // method to add facts like "fact {all x: BuffetService | no y: Transfer | y in x.steps}"
     Set<Sig> sigsWithTransferFieldsAndNoStepSigs = sigsWithTransferFields;
     sigsWithTransferFieldsAndNoStepSigs.addAll(noStepsSigs);
-    toAlloy.addNoTransferInXStepsFact(sigsWithTransferFieldsAndNoStepSigs, leafSigs);
+    _toAlloy.addNoTransferInXStepsFact(sigsWithTransferFieldsAndNoStepSigs, leafSigs);
 
     Set<String> allClassNames =
         allNamedElements.stream().map(c -> c.getName()).collect(Collectors.toSet());
@@ -264,7 +857,7 @@ public final class OBMXMI2Alloy {
     // if the name of signatures is in sigNameOfShardFieldType, then equal input/output facts (ie.,
     // {all x: B1 | x.vin in x.inputs} and {all x: B1 | x.inputs in x.vin}}
     // are not be added
-    toAlloy.handleNoInputsOutputs(
+    _toAlloy.handleNoInputsOutputs(
         connectorsTargetInputPropertyNamesByClassName,
         connectorsSourceOutputPrpertyNamesByClassName,
         allClassNames,
@@ -274,7 +867,7 @@ public final class OBMXMI2Alloy {
     // adding no steps.x
     // fact {all x: Integer | no steps.x}, fact {all x: Real | no steps.x} or {all x: Product | no
     // steps.x}
-    toAlloy.addStepClosureFact(transferingTypeSig, leafSigs);
+    _toAlloy.addStepClosureFact(transferingTypeSig, leafSigs);
 
     return parameterFields;
   }
@@ -296,4 +889,25 @@ public final class OBMXMI2Alloy {
   public List<String> getErrorMessages() {
     return this.errorMessages;
   }
+
+  /**
+   * Get statistics of traversing classes from the main class by the last translation of a class
+   * (i.e., by createAlloyFile or createTranslatedModule).
+   *
+   * @return (String) - the numbers of traversed classes and primitive types, revisits skipped and
+   *     the maximum depth, or null if no class is translated
+   */
+  public String getTraversalStatistics() {
+    return this.toAlloy == null ? null : this.toAlloy.getTraversalStatistics();
+  }
+
+  /**
+   * Get the numbers of hits and misses of omgutil objects and connector end feature paths
+   * remembered for the loaded xmi file, by all translations since the xmi file is loaded.
+   *
+   * @return (String) - the numbers of hits and misses, or null if no xmi file is loaded
+   */
+  public String getOmgutilCacheStatistics() {
+    return this.sysMLAdapterStatistics == null ? null : this.sysMLAdapterStatistics.toString();
+  }
 }
@@ -0,0 +1,122 @@
+package edu.gatech.gtri.obm.alloy.translator;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/** The results of executing commands of a TranslatedModule together. */
+public final class SolveReport {
+
+  /** the module name of the TranslatedModule */
+  private final String moduleName;
+  /** the results in the order of the executed commands */
+  private final List<SolveResult> results;
+  /** the time taken to execute all commands in nanoseconds */
+  private final long elapsedNanos;
+
+  /**
+   * A constructor
+   *
+   * @param _moduleName (String) - the module name of the TranslatedModule
+   * @param _results (List<SolveResult>) - the results in the order of the executed commands
+   * @param _elapsedNanos (long) - the time taken to execute all commands in nanoseconds
+   */
+  SolveReport(String _moduleName, List<SolveResult> _results, long _elapsedNanos) {
+    this.moduleName = _moduleName;
+    this.results = Collections.unmodifiableList(_results);
+    this.elapsedNanos = _elapsedNanos;
+  }
+
+  /**
+   * Get method for the module name
+   *
+   * @return (String) - the module name of the TranslatedModule
+   */
+  public String getModuleName() {
+    return this.moduleName;
+  }
+
+  /**
+   * Get method for the results
+   *
+   * @return (List<SolveResult>) - an unmodifiable list of results in the order of the commands
+   */
+  public List<SolveResult> getResults() {
+    return this.results;
+  }
+
+  /**
+   * Get the number of satisfiable commands
+   *
+   * @return (int) - the number of results with an instance
+   */
+  public int getSatisfiableCount() {
+    return (int) results.stream().filter(SolveResult::isSatisfiable).count();
+  }
+
+  /**
+   * Get the number of commands failed to execute
+   *
+   * @return (int) - the number of results with an error
+   */
+  public int getFailedCount() {
+    return (int) results.stream().filter(r -> r.getError() != null).count();
+  }
+
+  /**
+   * Get the time taken to execute all commands (the wall-clock time, not the sum of the times of
+   * commands executed concurrently)
+   *
+   * @return (long) - the elapsed time in milliseconds
+   */
+  public long getElapsedMillis() {
+    return this.elapsedNanos / 1_000_000;
+  }
+
+  /**
+   * Get the sum of the times taken by all commands
+   *
+   * @return (long) - the sum of the translation and solve times in milliseconds
+   */
+  public long getTotalCommandMillis() {
+    return results.stream().mapToLong(r -> r.getTranslationMillis() + r.getSolveMillis()).sum();
+  }
+
+  /**
+   * Get the numbers of commands answered first by each solver configuration of a portfolio. Used to
+   * tune the default configuration per model family.
+   *
+   * @return (Map<String, Long>) - the numbers of answered commands by configuration names, empty if
+   *     not solved by a portfolio
+   */
+  public Map<String, Long> getWinsByConfiguration() {
+    return results.stream()
+        .filter(r -> r.getConfiguration() != null && r.getError() == null)
+        .collect(
+            Collectors.groupingBy(
+                SolveResult::getConfiguration, TreeMap::new, Collectors.counting()));
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb =
+        new StringBuilder(moduleName)
+            .append(": ")
+            .append(results.size())
+            .append(" commands, ")
+            .append(getSatisfiableCount())
+            .append(" SAT, ")
+            .append(results.size() - getSatisfiableCount() - getFailedCount())
+            .append(" UNSAT, ")
+            .append(getFailedCount())
+            .append(" failed (")
+            .append(getElapsedMillis())
+            .append(" ms, commands ")
+            .append(getTotalCommandMillis())
+            .append(" ms)");
+    for (SolveResult result : results) sb.append('\n').append("  ").append(result);
+    return sb.toString();
+  }
+}
@@ -0,0 +1,151 @@
+package edu.gatech.gtri.obm.alloy.translator;
+
+import edu.mit.csail.sdg.translator.A4Solution;
+
+/** The result of executing a command of a TranslatedModule. */
+public final class SolveResult {
+
+  /** the label of the executed command (i.e., showSimpleSequence) */
+  private final String commandLabel;
+  /** the overall scope of the executed command */
+  private final int scope;
+  /** the solution, or null if the command failed to execute */
+  private final A4Solution solution;
+  /** the error of the failed execution, or null if executed */
+  private final String error;
+  /** the time taken by the translation to Kodkod and CNF in nanoseconds */
+  private final long translationNanos;
+  /** the time taken by the SAT solver in nanoseconds */
+  private final long solveNanos;
+  /** the name of the solver configuration answered first in a portfolio, or null */
+  private final String configuration;
+
+  /**
+   * A constructor
+   *
+   * @param _commandLabel (String) - the label of the executed command
+   * @param _scope (int) - the overall scope of the executed command
+   * @param _solution (A4Solution) - the solution, or null if the command failed to execute
+   * @param _error (String) - the error of the failed execution, or null if executed
+   * @param _translationNanos (long) - the time taken by the translation in nanoseconds
+   * @param _solveNanos (long) - the time taken by the SAT solver in nanoseconds
+   */
+  SolveResult(
+      String _commandLabel,
+      int _scope,
+      A4Solution _solution,
+      String _error,
+      long _translationNanos,
+      long _solveNanos) {
+    this.commandLabel = _commandLabel;
+    this.scope = _scope;
+    this.solution = _solution;
+    this.error = _error;
+    this.translationNanos = _translationNanos;
+    this.solveNanos = _solveNanos;
+    this.configuration = null;
+  }
+
+  /**
+   * A constructor for a result answered by a solver configuration of a portfolio
+   *
+   * @param _result (SolveResult) - the result of the configuration
+   * @param _configuration (String) - the name of the configuration (i.e., sat4j-symmetry0-skolem0)
+   */
+  SolveResult(SolveResult _result, String _configuration) {
+    this.commandLabel = _result.commandLabel;
+    this.scope = _result.scope;
+    this.solution = _result.solution;
+    this.error = _result.error;
+    this.translationNanos = _result.translationNanos;
+    this.solveNanos = _result.solveNanos;
+    this.configuration = _configuration;
+  }
+
+  /**
+   * Get method for the command label
+   *
+   * @return (String) - the label of the executed command
+   */
+  public String getCommandLabel() {
+    return this.commandLabel;
+  }
+
+  /**
+   * Get method for the scope
+   *
+   * @return (int) - the overall scope of the executed command
+   */
+  public int getScope() {
+    return this.scope;
+  }
+
+  /**
+   * Check if an instance is found
+   *
+   * @return (boolean) - true if satisfiable (SAT), false if unsatisfiable (UNSAT) or failed
+   */
+  public boolean isSatisfiable() {
+    return this.solution != null && this.solution.satisfiable();
+  }
+
+  /**
+   * Get method for the solution
+   *
+   * @return (A4Solution) - the solution (an instance if satisfiable), or null if failed
+   */
+  public A4Solution getSolution() {
+    return this.solution;
+  }
+
+  /**
+   * Get method for the error
+   *
+   * @return (String) - the error of the failed execution, or null if executed
+   */
+  public String getError() {
+    return this.error;
+  }
+
+  /**
+   * Get the time taken by the translation to Kodkod and CNF
+   *
+   * @return (long) - the elapsed time in milliseconds
+   */
+  public long getTranslationMillis() {
+    return this.translationNanos / 1_000_000;
+  }
+
+  /**
+   * Get the time taken by the SAT solver
+   *
+   * @return (long) - the elapsed time in milliseconds
+   */
+  public long getSolveMillis() {
+    return this.solveNanos / 1_000_000;
+  }
+
+  /**
+   * Get method for the solver configuration
+   *
+   * @return (String) - the name of the configuration answered first in a portfolio, or null if not
+   *     solved by a portfolio
+   */
+  public String getConfiguration() {
+    return this.configuration;
+  }
+
+  @Override
+  public String toString() {
+    return commandLabel
+        + " for "
+        + scope
+        + (error != null ? " failed: " + error : isSatisfiable() ? " SAT" : " UNSAT")
+        + " (translation "
+        + getTranslationMillis()
+        + " ms, solve "
+        + getSolveMillis()
+        + " ms"
+        + (configuration == null ? ")" : ", " + configuration + ")");
+  }
+}
@@ -0,0 +1,106 @@
+package edu.gatech.gtri.obm.alloy.translator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.Property;
+import org.eclipse.uml2.uml.Stereotype;
+import org.eclipse.uml2.uml.util.UMLUtil;
+
+/**
+ * An index of stereotype applications in a loaded model. Maps each stereotype (by its qualified
+ * name, i.e., "Model::OBM::Step") to the elements it is applied to, along with the stereotype
+ * property (tag) values of each element.
+ *
+ * <p>The index is created once when a xmi file is loaded by reading stereotype applications (the
+ * root objects of the resources) instead of asking each element for its applied stereotype by name
+ * (Element.getAppliedStereotype computes and compares the qualified names of all stereotypes
+ * applied to the element on every call). The index is not modified after created, so it is shared
+ * by concurrent translations.
+ */
+final class StereotypeIndex {
+
+  /** A stereotype applied to an element with the element's tag values */
+  private static final class Application {
+    /** tag values by tag (stereotype property) names */
+    final Map<String, Object> tagValues = new HashMap<>();
+  }
+
+  /** applications by elements by stereotype qualified names */
+  private final Map<String, Map<Element, Application>> applicationsByStereotype = new HashMap<>();
+
+  /**
+   * Create the index of the stereotype applications in the given resource set.
+   *
+   * @param _resourceSet (ResourceSet) - the resource set of a loaded xmi file with its proxies
+   *     resolved
+   */
+  StereotypeIndex(ResourceSet _resourceSet) {
+    Map<Stereotype, String> qualifiedNames = new IdentityHashMap<>();
+    for (Resource resource : new ArrayList<>(_resourceSet.getResources())) {
+      for (EObject stereotypeApplication : resource.getContents()) {
+        Element element = UMLUtil.getBaseElement(stereotypeApplication);
+        if (element == null) continue; // not a stereotype application (i.e., Model)
+        Stereotype stereotype = UMLUtil.getStereotype(stereotypeApplication);
+        if (stereotype == null) continue;
+        String qualifiedName =
+            qualifiedNames.computeIfAbsent(stereotype, st -> st.getQualifiedName());
+        Application application = new Application();
+        for (Property tag : stereotype.getAllAttributes()) {
+          String tagName = tag.getName();
+          if (tagName == null || tagName.startsWith("base_")) continue; // the extended element
+          try {
+            application.tagValues.put(tagName, element.getValue(stereotype, tagName));
+          } catch (IllegalArgumentException e) {
+            // not a property of the stereotype application - ignored
+          }
+        }
+        applicationsByStereotype
+            .computeIfAbsent(qualifiedName, k -> new IdentityHashMap<>())
+            .putIfAbsent(element, application);
+      }
+    }
+  }
+
+  /**
+   * Check if the given stereotype is applied to the given element.
+   *
+   * @param _element (Element) - an element
+   * @param _stereotypeName (String) - the qualified name of a stereotype
+   * @return (boolean) - true if the stereotype is applied, otherwise false
+   */
+  boolean isApplied(Element _element, String _stereotypeName) {
+    return getApplication(_element, _stereotypeName) != null;
+  }
+
+  /**
+   * Get a tag value of the given stereotype applied to the given element.
+   *
+   * @param _element (Element) - an element
+   * @param _stereotypeName (String) - the qualified name of a stereotype
+   * @param _tagName (String) - the name of a stereotype property
+   * @return (Object) - the value (i.e., a List of Property) or null if the stereotype is not
+   *     applied or the stereotype does not have the property
+   */
+  Object getValue(Element _element, String _stereotypeName, String _tagName) {
+    Application application = getApplication(_element, _stereotypeName);
+    return application == null ? null : application.tagValues.get(_tagName);
+  }
+
+  /**
+   * Get the application of the given stereotype to the given element.
+   *
+   * @param _element (Element) - an element
+   * @param _stereotypeName (String) - the qualified name of a stereotype
+   * @return (Application) - the application or null if the stereotype is not applied
+   */
+  private Application getApplication(Element _element, String _stereotypeName) {
+    Map<Element, Application> applications = applicationsByStereotype.get(_stereotypeName);
+    return applications == null ? null : applications.get(_element);
+  }
+}
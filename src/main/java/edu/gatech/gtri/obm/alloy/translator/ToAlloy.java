@@ -6,7 +6,7 @@ import edu.mit.csail.sdg.ast.Sig;
 import edu.mit.csail.sdg.ast.Sig.Field;
 import edu.mit.csail.sdg.ast.Sig.PrimSig;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -24,11 +24,21 @@ public class ToAlloy {
 
   /** Alloy object */
   private Alloy alloy;
+  /** The supporting libraries of the Alloy object */
+  private AlloyLibrary library;
+  /** A factory to create expressions using the supporting libraries */
+  private AlloyExprFactory exprFactory;
   /**
    * Map key = sig name, value = the PrimSig having the key name. used to retrieve the PrimSig based
    * on its name.
    */
   private Map<String, PrimSig> sigByName;
+  /** Fields by labels per signature used to find fields of signatures or their ancestors */
+  private FieldIndex fieldIndex;
+  /** The Occurrence signature the signatures of this translation extend */
+  private PrimSig occSig;
+  /** Statistics of traversing classes from the main class, or null if not traversed */
+  private String traversalStatistics;
 
   /**
    * A constructor
@@ -38,9 +48,50 @@ public class ToAlloy {
   protected ToAlloy(Alloy _alloy) {
     alloy = _alloy;
     alloy.initialize();
+    library = alloy.getLibrary();
+    occSig = library.createOccurrenceSig();
+    fieldIndex = new FieldIndex();
+    exprFactory = new AlloyExprFactory(library, fieldIndex);
     sigByName = new HashMap<>();
   }
 
+  /**
+   * Get method for the supporting libraries
+   *
+   * @return (AlloyLibrary) - the supporting libraries used for the translation
+   */
+  protected AlloyLibrary getLibrary() {
+    return library;
+  }
+
+  /**
+   * Get method for the Occurrence signature of this translation
+   *
+   * @return (PrimSig) - the Occurrence signature the signatures of this translation extend
+   */
+  protected PrimSig getOccurrenceSig() {
+    return occSig;
+  }
+
+  /**
+   * Get method for the statistics of traversing classes from the main class
+   *
+   * @return (String) - the statistics (see ClassesHandler.getTraversalStatistics), or null if not
+   *     traversed
+   */
+  protected String getTraversalStatistics() {
+    return traversalStatistics;
+  }
+
+  /**
+   * Set method for the statistics of traversing classes from the main class
+   *
+   * @param _traversalStatistics (String) - the statistics
+   */
+  protected void setTraversalStatistics(String _traversalStatistics) {
+    traversalStatistics = _traversalStatistics;
+  }
+
   /**
    * Gets a signature by name
    *
@@ -66,10 +117,12 @@ public class ToAlloy {
 
     PrimSig sig = createSig(_name, _parentSig);
     if (sig == null) return null;
-    if (_isMainSig)
+    if (_isMainSig) {
       // removing "this/" from s.label and assigns as moduleName
       alloy.setModuleName(
           (sig.label.startsWith("this") ? sig.label.substring(5) : sig.label) + "Module");
+      alloy.setMainSig(sig);
+    }
     return sig;
   }
 
@@ -93,7 +146,7 @@ public class ToAlloy {
     if (!AlloyUtils.isValidUserDefineParent(
         _parentName)) // null, Occurrence, BehaviorOccurrence or Anything
       // then parent is Occurrence
-      parentSig = Alloy.occSig;
+      parentSig = occSig;
     else parentSig = (PrimSig) sigByName.get(_parentName);
     return createSig(_name, parentSig);
   }
@@ -112,9 +165,34 @@ public class ToAlloy {
     PrimSig sig = new PrimSig(_name, _parentSig);
     alloy.addToAllSigs(sig);
     sigByName.put(_name, sig);
+    fieldIndex.addSig(sig);
     return sig;
   }
 
+  /**
+   * Return a field of the given name in the given signature or its ancestors using the field index.
+   *
+   * @param _fieldName(String) - the field name/label looking for
+   * @param _sig(PrimSig) - the signature checked for having the field
+   * @return (Field) - the field if found, otherwise null
+   */
+  protected Field getFieldFromSigOrItsParents(String _fieldName, PrimSig _sig) {
+    return fieldIndex.getFieldFromSigOrParents(_fieldName, _sig);
+  }
+
+  /**
+   * Create a transfer field of the given name in the given signature.
+   *
+   * @param _fieldName(String) - the name of the field to be created
+   * @param _ownerSig(PrimSig) - the signature to have the field
+   * @return (Field) - the created field
+   */
+  protected Field addTransferField(String _fieldName, PrimSig _ownerSig) {
+    Field field = AlloyUtils.addTransferField(_fieldName, _ownerSig, library.transferSig);
+    fieldIndex.addFields(field);
+    return field;
+  }
+
   /**
    * Create the disjoint alloy fields and return.
    *
@@ -133,6 +211,7 @@ public class ToAlloy {
     Sig fieldSigType = sigByName.get(_fieldSigTypeName);
     if (fieldSigType != null) {
       disjointFields = AlloyUtils.addTrickyFields(fieldNames, _ownerSig, fieldSigType);
+      fieldIndex.addFields(disjointFields);
       if (disjointFields.length != fieldNames.length) {
         return null; // this should not happens unless model is corrupted
       }
@@ -158,8 +237,7 @@ public class ToAlloy {
   protected void createInFieldExpression(
       Sig _ownerSig, Sig.Field _sigField, Sig.Field _fieldOfsigFieldType, Func _inputsOrOutputs) {
     alloy.addToFact(
-        AlloyExprFactory.exprs_inField(
-            _ownerSig, _sigField, _fieldOfsigFieldType, _inputsOrOutputs));
+        exprFactory.exprs_inField(_ownerSig, _sigField, _fieldOfsigFieldType, _inputsOrOutputs));
   }
 
   /**
@@ -178,8 +256,8 @@ public class ToAlloy {
    */
   protected void addBijectionFilteredHappensBeforeFact(Sig _ownerSig, Expr _from, Expr _to) {
     alloy.addToFacts(
-        AlloyExprFactory.exprs_bijectionFilteredFactsForSig(
-            _ownerSig, _from, _to, Alloy.happensBefore));
+        exprFactory.exprs_bijectionFilteredFactsForSig(
+            _ownerSig, _from, _to, library.happensBefore));
   }
 
   /**
@@ -199,8 +277,8 @@ public class ToAlloy {
    */
   protected void addBijectionFilteredHappensDuringFact(Sig _ownerSig, Expr _from, Expr _to) {
     alloy.addToFacts(
-        AlloyExprFactory.exprs_bijectionFilteredFactsForSig(
-            _ownerSig, _from, _to, Alloy.happensDuring));
+        exprFactory.exprs_bijectionFilteredFactsForSig(
+            _ownerSig, _from, _to, library.happensDuring));
   }
 
   /**
@@ -220,7 +298,7 @@ public class ToAlloy {
    */
   protected void addBijectionFilteredInputsFact(Sig _ownerSig, Expr _from, Expr _to) {
     alloy.addToFacts(
-        AlloyExprFactory.exprs_bijectionFilteredFactsForSig(_ownerSig, _from, _to, Alloy.oinputs));
+        exprFactory.exprs_bijectionFilteredFactsForSig(_ownerSig, _from, _to, library.oinputs));
   }
 
   /**
@@ -240,7 +318,7 @@ public class ToAlloy {
    */
   protected void addBijectionFilteredOutputsFact(Sig _ownerSig, Expr _from, Expr _to) {
     alloy.addToFacts(
-        AlloyExprFactory.exprs_bijectionFilteredFactsForSig(_ownerSig, _from, _to, Alloy.ooutputs));
+        exprFactory.exprs_bijectionFilteredFactsForSig(_ownerSig, _from, _to, library.ooutputs));
   }
 
   /**
@@ -251,8 +329,7 @@ public class ToAlloy {
    * @param _to(Expr) - the functionFiltered function's to expression
    */
   protected void addFunctionFilteredHappensBeforeFact(Sig _ownerSig, Expr _from, Expr _to) {
-    alloy.addToFact(
-        AlloyExprFactory.expr_functionFilteredHappensBeforeForSig(_ownerSig, _from, _to));
+    alloy.addToFact(exprFactory.expr_functionFilteredHappensBeforeForSig(_ownerSig, _from, _to));
   }
 
   /**
@@ -263,8 +340,7 @@ public class ToAlloy {
    * @param _to(Expr) - the inverseFunctionFiltered function's to expression
    */
   protected void addInverseFunctionFilteredHappensBeforeFact(Sig _ownerSig, Expr _from, Expr _to) {
-    alloy.addToFact(
-        AlloyExprFactory.expr_inverseFunctionFilteredHappensBefore(_ownerSig, _from, _to));
+    alloy.addToFact(exprFactory.expr_inverseFunctionFilteredHappensBefore(_ownerSig, _from, _to));
   }
 
   /**
@@ -279,9 +355,9 @@ public class ToAlloy {
    */
   protected void addCardinalityFact(PrimSig _ownerSig, Field _field, int _lower, int _upper) {
     if (_lower == _upper)
-      alloy.addToFact(AlloyExprFactory.expr_cardinalityEqual(_ownerSig, _field, _lower));
+      alloy.addToFact(exprFactory.expr_cardinalityEqual(_ownerSig, _field, _lower));
     else if (_upper == -1 && _lower >= 1) {
-      alloy.addToFact(AlloyExprFactory.expr_cardinalityGreaterThanEqual(_ownerSig, _field, _lower));
+      alloy.addToFact(exprFactory.expr_cardinalityGreaterThanEqual(_ownerSig, _field, _lower));
     }
   }
 
@@ -298,7 +374,7 @@ public class ToAlloy {
   protected boolean addCardinalityFact(
       PrimSig _ownerSig, String _fieldName, int _lower, int _upper) {
 
-    Sig.Field field = AlloyUtils.getFieldFromSigOrItsParents(_fieldName, _ownerSig); // FoodService
+    Sig.Field field = fieldIndex.getFieldFromSigOrParents(_fieldName, _ownerSig); // FoodService
     if (field == null) return false;
     else addCardinalityFact(_ownerSig, field, _lower, _upper);
     return true;
@@ -341,8 +417,8 @@ public class ToAlloy {
       List<Set<Field>> _sourceOutputsAndTargetInputsFields,
       boolean _toBeInherited) {
 
-    Field sourceTypeField = AlloyUtils.getFieldFromSigOrItsParents(_sourceFieldName, _ownerSig);
-    Field targetTypeField = AlloyUtils.getFieldFromSigOrItsParents(_targetFieldName, _ownerSig);
+    Field sourceTypeField = fieldIndex.getFieldFromSigOrParents(_sourceFieldName, _ownerSig);
+    Field targetTypeField = fieldIndex.getFieldFromSigOrParents(_targetFieldName, _ownerSig);
 
     Set<Expr> facts = new HashSet<>();
     // only for leaf node
@@ -351,32 +427,32 @@ public class ToAlloy {
     if (_sourceOutputsAndTargetInputsFields != null) {
       if (_sourceOutputsAndTargetInputsFields.get(0).size() > 0) { // SourceOutputProperty names
         Set<Expr> factsWithoutSig =
-            AlloyExprFactory.exprs_transferInItems(
+            exprFactory.exprs_transferInItems(
                 _ownerSig,
                 _transferField,
-                Alloy.sources,
+                library.sources,
                 _sourceOutputsAndTargetInputsFields.get(0));
         facts.addAll(factsWithoutSig);
         if (!_toBeInherited) alloy.addToFacts(AlloyUtils.toSigAllFacts(_ownerSig, factsWithoutSig));
       }
       if (_sourceOutputsAndTargetInputsFields.get(1).size() > 0) { // targetInputProperty names
         Set<Expr> factsWithoutSig =
-            AlloyExprFactory.exprs_transferInItems(
+            exprFactory.exprs_transferInItems(
                 _ownerSig,
                 _transferField,
-                Alloy.targets,
+                library.targets,
                 _sourceOutputsAndTargetInputsFields.get(1));
         facts.addAll(factsWithoutSig);
         if (!_toBeInherited) alloy.addToFacts(AlloyUtils.toSigAllFacts(_ownerSig, factsWithoutSig));
       }
     }
     alloy.addToFacts(
-        AlloyExprFactory.exprs_bijectionFilteredFactsForSig(
-            _ownerSig, _transferField, sourceTypeField, Alloy.sources));
+        exprFactory.exprs_bijectionFilteredFactsForSig(
+            _ownerSig, _transferField, sourceTypeField, library.sources));
     alloy.addToFacts(
-        AlloyExprFactory.exprs_bijectionFilteredFactsForSig(
-            _ownerSig, _transferField, targetTypeField, Alloy.targets));
-    alloy.addToFact(AlloyExprFactory.exprs_subSettingItemRule(_ownerSig, _transferField));
+        exprFactory.exprs_bijectionFilteredFactsForSig(
+            _ownerSig, _transferField, targetTypeField, library.targets));
+    alloy.addToFact(exprFactory.exprs_subSettingItemRule(_ownerSig, _transferField));
 
     return facts;
   }
@@ -412,7 +488,7 @@ public class ToAlloy {
             _sourceOutputsAndTargetInputsFields,
             _toBeInherited);
 
-    Set<Expr> facts = AlloyExprFactory.exprs_isAfterSourceIsBeforeTarget(_ownerSig, _transferField);
+    Set<Expr> facts = exprFactory.exprs_isAfterSourceIsBeforeTarget(_ownerSig, _transferField);
 
     if (!_toBeInherited) {
       // facts above have
@@ -444,9 +520,8 @@ public class ToAlloy {
    */
   protected void addNoInputsOrOutputsFieldFact(
       PrimSig _ownerSig, String _fieldName, Func _inputsOrOutputs) {
-    Sig.Field field = AlloyUtils.getFieldFromSigOrItsParents(_fieldName, _ownerSig);
-    alloy.addToFact(
-        AlloyExprFactory.expr_noInputsOrOutputsField(_ownerSig, field, _inputsOrOutputs));
+    Sig.Field field = fieldIndex.getFieldFromSigOrParents(_fieldName, _ownerSig);
+    alloy.addToFact(exprFactory.expr_noInputsOrOutputsField(_ownerSig, field, _inputsOrOutputs));
   }
 
   /**
@@ -464,9 +539,9 @@ public class ToAlloy {
     List<Field> sortedFields = AlloyUtils.sortFields(_fields);
     if (_addEqual)
       // {all x: B1 | x.vin in x.inputs} and {all x: B1 | x.inputs in x.vin}
-      alloy.addToFacts(AlloyExprFactory.exprs_in(_ownerSig, sortedFields, Alloy.oinputs));
+      alloy.addToFacts(exprFactory.exprs_in(_ownerSig, sortedFields, library.oinputs));
     // {all x| no inputs.x}
-    alloy.addToFact(AlloyExprFactory.expr_noInputsX(_ownerSig));
+    alloy.addToFact(exprFactory.expr_noInputsX(_ownerSig));
   }
 
   /**
@@ -485,9 +560,9 @@ public class ToAlloy {
     List<Field> sortedFields = AlloyUtils.sortFields(_fields);
     if (_addEqual)
       // {all x: B1 | x.vout in x.outputs} and {all x: B1 | x.outputs in x.vout}
-      alloy.addToFacts(AlloyExprFactory.exprs_in(_ownerSig, sortedFields, Alloy.ooutputs));
+      alloy.addToFacts(exprFactory.exprs_in(_ownerSig, sortedFields, library.ooutputs));
     // {all x| no outputs.x}
-    alloy.addToFact(AlloyExprFactory.expr_noOutputsX(_ownerSig));
+    alloy.addToFact(exprFactory.expr_noOutputsX(_ownerSig));
   }
 
   /**
@@ -498,14 +573,13 @@ public class ToAlloy {
    * @param _field(Field) - A field of the given owner signature used to create expression after
    *     "x." to define inputs or outputs.
    * @param _fieldOfFields(Set<Field>) - fields of the field used to create expression after "in".
-   * @param _inputsOrOutputs(Func) - A function either Alloy.oinputs or Alloy.ooutputs.
+   * @param _inputsOrOutputs(Func) - A function either library.oinputs or library.ooutputs.
    */
   protected void addInOutClosureFact(
       PrimSig _ownerSig, Field _field, Set<Field> _fieldsOfField, Func _inputsOrOutputs) {
     List<Field> sortedfieldOfFields = AlloyUtils.sortFields(_fieldsOfField);
     alloy.addToFact(
-        AlloyExprFactory.expr_inOutClosure(
-            _ownerSig, _field, sortedfieldOfFields, _inputsOrOutputs));
+        exprFactory.expr_inOutClosure(_ownerSig, _field, sortedfieldOfFields, _inputsOrOutputs));
   }
 
   /**
@@ -524,7 +598,7 @@ public class ToAlloy {
             .toArray();
     for (Object sig : sigs) {
       if (_leafSigs.contains(sig) && AlloyUtils.hasOwnOrInheritedFields((PrimSig) sig))
-        alloy.addToFact(AlloyExprFactory.expr_noTransferXSteps((PrimSig) sig));
+        alloy.addToFact(exprFactory.expr_noTransferXSteps((PrimSig) sig));
     }
   }
 
@@ -540,7 +614,7 @@ public class ToAlloy {
       Sig sig = sigByName.get(sigName);
       if (_leafSigs.contains(sig))
         // fact {all x: Integer | no steps.x}
-        alloy.addToFact(AlloyExprFactory.expr_noStepsX(sig));
+        alloy.addToFact(exprFactory.expr_noStepsX(sig));
     }
   }
 
@@ -569,19 +643,16 @@ public class ToAlloy {
         if (_stepPropertiesBySig.get(sigName).size()
             > 0) { // {x.steps in ....} and {... in x.steps} for leaf signature
           alloy.addToFacts(
-              AlloyExprFactory.exprs_stepsFields(
-                  sig, _stepPropertiesBySig.get(sigName), true, true));
+              exprFactory.exprs_stepsFields(sig, _stepPropertiesBySig.get(sigName), true, true));
         } else {
-          alloy.addToFact(
-              AlloyExprFactory.expr_noXSteps(
-                  sig)); // {no steps} facts if leafSig but no stepProperties
+          // {no steps} facts if leafSig but no stepProperties
+          alloy.addToFact(exprFactory.expr_noXSteps(sig));
           noStepsSigs.add(sig);
         }
       } else if (_stepPropertiesBySig.get(sigName).size()
           > 0) // not leaf signature {.... in x.steps} only
       alloy.addToFacts(
-            AlloyExprFactory.exprs_stepsFields(
-                sig, _stepPropertiesBySig.get(sigName), true, false));
+            exprFactory.exprs_stepsFields(sig, _stepPropertiesBySig.get(sigName), true, false));
     }
     return noStepsSigs;
   }
@@ -598,9 +669,9 @@ public class ToAlloy {
 
     for (String pName : _propertyNameAndType.keySet()) {
       alloy.addToFact(
-          AlloyExprFactory.expr_redefinedSubsetting(
+          exprFactory.expr_redefinedSubsetting(
               _ownerSig,
-              (Field) AlloyUtils.getFieldFromParentSig(pName, _ownerSig),
+              fieldIndex.getFieldFromParents(pName, _ownerSig),
               sigByName.get(_propertyNameAndType.get(pName))));
     }
   }
@@ -614,10 +685,10 @@ public class ToAlloy {
    * @param _fieldName2(string) - Another field name of the Signature to be defined equal.
    */
   protected void addEqualFact(PrimSig _ownerSig, String _fieldName1, String _fieldName2) {
-    Field f1 = AlloyUtils.getFieldFromSigOrItsParents(_fieldName1, _ownerSig);
-    Field f2 = AlloyUtils.getFieldFromSigOrItsParents(_fieldName2, _ownerSig);
+    Field f1 = fieldIndex.getFieldFromSigOrParents(_fieldName1, _ownerSig);
+    Field f2 = fieldIndex.getFieldFromSigOrParents(_fieldName2, _ownerSig);
     if (f1 != null && f2 != null) {
-      alloy.addToFact(AlloyExprFactory.expr_equal(_ownerSig, f1, f2));
+      alloy.addToFact(exprFactory.expr_equal(_ownerSig, f1, f2));
     }
   }
 
@@ -684,7 +755,7 @@ public class ToAlloy {
 
       if ((inputFlowFieldTypes == null || !(inputFlowFieldTypes.contains(sigName)))
           && (outputFlowFieldTypes == null || !(outputFlowFieldTypes.contains(sigName))))
-        alloy.addToFact(AlloyExprFactory.expr_noItemsX(sig));
+        alloy.addToFact(exprFactory.expr_noItemsX(sig));
       // inputs
       if (_connectorsTargetInputPropertyNamesByClassName.keySet().contains(sigName)) {
         Set<String> propertyNames = _connectorsTargetInputPropertyNamesByClassName.get(sigName);
@@ -692,7 +763,7 @@ public class ToAlloy {
         Set<Field> inputsFields = new HashSet<>();
         for (String propertyName : propertyNames)
           // sig = IFCustomServe, propertyName = IFServe.servedFoodItem
-          inputsFields.add(AlloyUtils.getFieldFromSigOrItsParents(propertyName, sig));
+          inputsFields.add(fieldIndex.getFieldFromSigOrParents(propertyName, sig));
 
         // "{all x: B1 | x.vin in x.inputs} and {all x: B1 | x.inputs in x.vin} and {all x| no
         // inputs.x}
@@ -701,10 +772,10 @@ public class ToAlloy {
         if (inputFlowFieldTypes != null
             && inputFlowFieldTypes.contains(sigName)) // Integer = type of what is flowing
           // fact {all x: Integer | no (x.inputs)}
-          alloy.addToFact(AlloyExprFactory.expr_noXInputs(sig));
+          alloy.addToFact(exprFactory.expr_noXInputs(sig));
         else {
           // both "no inputs.x & no x.inputs"
-          alloy.addToFact(AlloyExprFactory.exprs_noInputsXAndXInputs(sig));
+          alloy.addToFact(exprFactory.exprs_noInputsXAndXInputs(sig));
         }
       }
       // outputs
@@ -715,7 +786,7 @@ public class ToAlloy {
         Set<Field> outputsFields = new HashSet<>();
         for (String propertyName : propertyNames)
           // sig = IFCustomServe, propertyName = IFServe.servedFoodItem
-          outputsFields.add(AlloyUtils.getFieldFromSigOrItsParents(propertyName, sig));
+          outputsFields.add(fieldIndex.getFieldFromSigOrParents(propertyName, sig));
 
         // {all x: B1 | x.vin in x.outputs} and {all x: B1 | x.outputs in x.vin}" and "{all x| no
         // outputs.x}"
@@ -724,10 +795,10 @@ public class ToAlloy {
         if (outputFlowFieldTypes != null
             && outputFlowFieldTypes.contains(sigName)) { // Integer = type of what is flowing
           // fact {all x: Integer | no (x.outputs)}
-          alloy.addToFact(AlloyExprFactory.expr_noXOutputs(sig));
+          alloy.addToFact(exprFactory.expr_noXOutputs(sig));
         } else {
           // both "no outputs.x & no x.outputs"
-          alloy.addToFact(AlloyExprFactory.exprs_noOutputsXAndXOutputs(sig));
+          alloy.addToFact(exprFactory.exprs_noOutputsXAndXOutputs(sig));
         }
       }
     }
@@ -758,7 +829,7 @@ public class ToAlloy {
       PrimSig sig = getSig(sigName);
       Set<String> fieldNames = _inputsOrOutputs.get(sigName);
       for (String fieldName : fieldNames) {
-        Sig.Field f1 = AlloyUtils.getFieldFromSigOrItsParents(fieldName, sig);
+        Sig.Field f1 = fieldIndex.getFieldFromSigOrParents(fieldName, sig);
         edu.mit.csail.sdg.ast.Type type = f1.type();
         List<List<PrimSig>> folds = type.fold(); // fold contains sig and field's type
         for (List<PrimSig> lp : folds) {
@@ -792,11 +863,11 @@ public class ToAlloy {
    * @param _parameterFields(Set<Field>) - a set of Fields having <<Parameter>> stereotype. The
    *     fields with the stereotype can's be disj.
    * @return true if successfully translated otherwise return false
-   * @throws FileNotFoundException - happens when the outputFileName is failed to be created (not
-   *     exist, not writable etc...)
+   * @throws IOException - happens when the outputFileName is failed to be created (not exist, not
+   *     writable etc...) or written
    */
   protected boolean createAlloyFile(File _outputFile, Set<Field> _parameterFields)
-      throws FileNotFoundException {
+      throws IOException {
 
     if (_outputFile != null && _outputFile.getParentFile().canWrite()) {
       alloy.toFile(_outputFile.getAbsolutePath(), _parameterFields);
@@ -804,4 +875,16 @@ public class ToAlloy {
     }
     return false;
   }
+
+  /**
+   * Write the Alloy (signatures and facts) to the given sink instead of a file.
+   *
+   * @param _sink(Appendable) - A sink (i.e., StringBuilder or Writer) the alloy is written to
+   * @param _parameterFields(Set<Field>) - a set of Fields having <<Parameter>> stereotype. The
+   *     fields with the stereotype can's be disj.
+   * @throws IOException - failed to write to the sink
+   */
+  protected void createAlloy(Appendable _sink, Set<Field> _parameterFields) throws IOException {
+    alloy.write(_sink, _parameterFields);
+  }
 }
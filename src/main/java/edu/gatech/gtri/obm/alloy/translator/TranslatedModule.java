@@ -0,0 +1,473 @@
+package edu.gatech.gtri.obm.alloy.translator;
+
+import edu.mit.csail.sdg.alloy4.A4Reporter;
+import edu.mit.csail.sdg.alloy4.Err;
+import edu.mit.csail.sdg.alloy4.Pos;
+import edu.mit.csail.sdg.ast.Command;
+import edu.mit.csail.sdg.ast.Decl;
+import edu.mit.csail.sdg.ast.Expr;
+import edu.mit.csail.sdg.ast.ExprList;
+import edu.mit.csail.sdg.ast.ExprUnary;
+import edu.mit.csail.sdg.ast.Sig;
+import edu.mit.csail.sdg.ast.Sig.Field;
+import edu.mit.csail.sdg.ast.Sig.PrimSig;
+import edu.mit.csail.sdg.translator.A4Options;
+import edu.mit.csail.sdg.translator.A4Solution;
+import edu.mit.csail.sdg.translator.TranslateAlloyToKodkod;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The signatures and facts of a translated class linked against the supporting libraries, given to
+ * Alloy's analysis (TranslateAlloyToKodkod) as they are created by the translator. The alloy module
+ * is not written to a file and parsed again as a CompModule to be analyzed.
+ *
+ * <p>The signatures and facts are the same as the ones written to an alloy file by
+ * OBMXMI2Alloy.createAlloyFile. Fields of a signature written as "disj" fields are given to the
+ * analysis as facts (i.e., "all x: A | disj[x.p1, x.p2]").
+ *
+ * <p>The translator does not create commands. createRunCommands creates the standard run command of
+ * the reference alloy files (i.e., "run showSimpleSequence{instancesDuringExample and some
+ * SimpleSequence} for 6") for the main signature.
+ *
+ * <p>The signatures and facts are not changed after created, so commands of a module can be
+ * executed concurrently (see solveAll). Each execution creates its own Kodkod translation and
+ * solver. race executes a command with several solver configurations (a portfolio) and takes the
+ * first answer; configurations already solving when the answer is taken can not be stopped and keep
+ * using a CPU until they finish, so all races share one pool of as many threads as processors.
+ * escalate executes a command with growing scopes until an instance is found.
+ */
+public final class TranslatedModule {
+
+  /**
+   * A reporter recording when the SAT solver is started. Stops the execution when the given flag is
+   * set (i.e., another configuration of a portfolio answered) by throwing from the callbacks before
+   * the translation and before the solver. A solver already started is not stopped since Alloy does
+   * not provide a way to stop it or to limit its time, and SAT4J does not check the interrupted
+   * status of its thread.
+   */
+  private static final class TimingReporter extends A4Reporter {
+    /** the flag to stop the execution, or null if not stopped */
+    private final AtomicBoolean stop;
+    /** System.nanoTime() when the translation to CNF is finished and the solver is started */
+    long solveStart;
+
+    TimingReporter(AtomicBoolean _stop) {
+      this.stop = _stop;
+    }
+
+    @Override
+    public void translate(
+        String _solver, int _bitwidth, int _maxseq, int _skolemDepth, int _symmetry) {
+      stopIfRequested();
+    }
+
+    @Override
+    public void solve(int _primaryVars, int _totalVars, int _clauses) {
+      stopIfRequested();
+      solveStart = System.nanoTime();
+    }
+
+    private void stopIfRequested() {
+      if (stop != null && stop.get())
+        throw new CancellationException("Another solver configuration answered.");
+    }
+  }
+
+  /**
+   * The pool of daemon threads shared by all races. Configurations still solving after their race
+   * is answered keep a thread, so at most as many configurations as processors are executed at a
+   * time and later races wait for the threads.
+   */
+  private static final ExecutorService raceExecutor = createRaceExecutor();
+
+  /** The module name (i.e., SimpleSequenceModule) */
+  private final String moduleName;
+  /** The signature of the translated class */
+  private final PrimSig mainSig;
+  /** The built-in, library and translated signatures */
+  private final List<Sig> sigs;
+  /** The translated signatures */
+  private final Set<Sig> translatedSigs;
+  /** The library and translated facts as a conjunction */
+  private final Expr facts;
+
+  /**
+   * Create a module from the given translated Alloy object.
+   *
+   * @param _alloy (Alloy) - the Alloy object the class is translated to, using a library not shared
+   *     with other translations
+   * @param _parameterFields (Set<Field>) - a set of Fields having <<Parameter>> stereotype. The
+   *     fields with the stereotype are not disj.
+   */
+  TranslatedModule(Alloy _alloy, Set<Field> _parameterFields) {
+    this.moduleName = _alloy.getModuleName();
+    this.mainSig = _alloy.getMainSig();
+
+    // the same as CompModule.getAllReachableSigs, followed by the translated signatures
+    List<Sig> allSigs = new ArrayList<>();
+    for (Sig sig : _alloy.getLibrary().templateModule.getAllReachableSigs()) allSigs.add(sig);
+    allSigs.addAll(_alloy.getAllSigs());
+    this.sigs = Collections.unmodifiableList(allSigs);
+    this.translatedSigs = Collections.newSetFromMap(new IdentityHashMap<>());
+    this.translatedSigs.addAll(_alloy.getAllSigs());
+
+    Expr allFacts = _alloy.getLibrary().templateModule.getAllReachableFacts();
+    Expr translatedFacts = _alloy.getFacts();
+    if (translatedFacts != null) allFacts = allFacts.and(translatedFacts);
+    for (Sig sig : _alloy.getAllSigs())
+      for (Expr disjFact : createDisjFacts(sig, _parameterFields))
+        allFacts = allFacts.and(disjFact);
+    this.facts = allFacts;
+  }
+
+  /**
+   * Create facts for the fields of the given signature written as "disj" fields, grouped by their
+   * types the same way as ExprVisitor writes them.
+   *
+   * @param _sig (Sig) - a translated signature
+   * @param _parameterFields (Set<Field>) - a set of Fields having <<Parameter>> stereotype
+   * @return (List<Expr>) - the facts (i.e., "all x: A | disj[x.p1, x.p2]")
+   */
+  private static List<Expr> createDisjFacts(Sig _sig, Set<Field> _parameterFields) {
+    Map<String, List<Field>> fieldsByType =
+        new ExprVisitor(_parameterFields).groupFieldsByType(_sig);
+
+    List<Expr> disjFacts = new ArrayList<>();
+    for (List<Field> fields : fieldsByType.values()) {
+      if (fields.size() < 2 || fields.stream().anyMatch(_parameterFields::contains)) continue;
+      Decl x = _sig.oneOf("x");
+      List<Expr> joins = new ArrayList<>();
+      for (Field field : fields) joins.add(x.get().join(field));
+      disjFacts.add(ExprList.makeDISJOINT(Pos.UNKNOWN, Pos.UNKNOWN, joins).forAll(x));
+    }
+    return disjFacts;
+  }
+
+  /**
+   * Get method for the module name
+   *
+   * @return (String) - the module name (i.e., SimpleSequenceModule)
+   */
+  public String getModuleName() {
+    return moduleName;
+  }
+
+  /**
+   * Get method for the signature of the translated class
+   *
+   * @return (PrimSig) - the main signature
+   */
+  public PrimSig getMainSig() {
+    return mainSig;
+  }
+
+  /**
+   * Get the signatures given to the analysis.
+   *
+   * @return (List<Sig>) - an unmodifiable list of the built-in, library and translated signatures
+   */
+  public List<Sig> getAllReachableSigs() {
+    return sigs;
+  }
+
+  /**
+   * Get the facts added to the formula of a command executed.
+   *
+   * @return (Expr) - the library and translated facts as a conjunction
+   */
+  public Expr getAllReachableFacts() {
+    return facts;
+  }
+
+  /**
+   * Create the standard run command for the main signature: "run show[Main]{instancesDuringExample
+   * and some [Main]} for [scope]". instancesDuringExample is created as all instances of the types
+   * of the main signature's fields (including inherited, typed by translated signatures) are values
+   * of the fields of the main signature (i.e., "AtomicBehavior in SimpleSequence.p1 +
+   * SimpleSequence.p2"), so no instance appears outside the behavior.
+   *
+   * @param _scope (int) - the overall scope of the commands (i.e., 6)
+   * @return (Map<String, Command>) - the commands by their labels (i.e., showSimpleSequence)
+   */
+  public Map<String, Command> createRunCommands(int _scope) {
+    Expr types = null;
+    Expr values = null;
+    for (PrimSig sig = mainSig; translatedSigs.contains(sig); sig = sig.parent) {
+      for (Field field : sig.getFields()) {
+        Expr type = field.decl().expr.deNOP();
+        if (type instanceof ExprUnary && ((ExprUnary) type).op == ExprUnary.Op.SETOF)
+          type = ((ExprUnary) type).sub.deNOP();
+        if (!translatedSigs.contains(type)) continue; // i.e., Transfer
+        types = types == null ? type : types.plus(type);
+        values = values == null ? mainSig.join(field) : values.plus(mainSig.join(field));
+      }
+    }
+    Expr formula = mainSig.some();
+    if (types != null) formula = types.in(values).and(formula);
+
+    Map<String, Command> commands = new LinkedHashMap<>();
+    String label = "show" + AlloyUtils.removeSlash(mainSig.label);
+    commands.put(label, new Command(false, _scope, -1, -1, formula));
+    return commands;
+  }
+
+  /**
+   * Execute the given command and measure the times taken by the translation to CNF and by the SAT
+   * solver.
+   *
+   * @param _label (String) - the label of the command (i.e., showSimpleSequence)
+   * @param _command (Command) - a command whose formula is not including the facts of this module
+   * @param _options (A4Options) - the options of the analysis (i.e., the solver)
+   * @return (SolveResult) - the result having the solution or the error if failed to execute
+   */
+  public SolveResult solve(String _label, Command _command, A4Options _options) {
+    return solve(_label, _command, _options, null);
+  }
+
+  /**
+   * Execute the given command and measure the times, stopping when the given flag is set.
+   *
+   * @param _label (String) - the label of the command
+   * @param _command (Command) - a command whose formula is not including the facts of this module
+   * @param _options (A4Options) - the options of the analysis
+   * @param _stop (AtomicBoolean) - the flag to stop the execution, or null if not stopped
+   * @return (SolveResult) - the result having the solution or the error if failed or stopped
+   */
+  private SolveResult solve(
+      String _label, Command _command, A4Options _options, AtomicBoolean _stop) {
+    TimingReporter reporter = new TimingReporter(_stop);
+    long start = System.nanoTime();
+    A4Solution solution = null;
+    String error = null;
+    try {
+      solution = execute(_command, _options, reporter);
+    } catch (Err e) {
+      error = e.getMessage();
+    }
+    long end = System.nanoTime();
+    long solveStart = reporter.solveStart == 0 ? end : reporter.solveStart;
+    return new SolveResult(
+        _label, _command.overall, solution, error, solveStart - start, end - solveStart);
+  }
+
+  /**
+   * Execute the given commands concurrently using the given executor, one solver for each command.
+   * A command failed to execute is reported with its error instead of stopping other commands.
+   *
+   * @param _commands (Map<String, Command>) - commands by their labels (i.e., createRunCommands)
+   * @param _options (A4Options) - the options of the analysis, copied for each command
+   * @param _executor (ExecutorService) - the executor to run commands (i.e.,
+   *     Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()))
+   * @return (SolveReport) - the results in the iteration order of the given map
+   * @throws InterruptedException - interrupted while waiting for commands. Commands not started yet
+   *     are cancelled.
+   */
+  public SolveReport solveAll(
+      Map<String, Command> _commands, A4Options _options, ExecutorService _executor)
+      throws InterruptedException {
+    long start = System.nanoTime();
+    List<Future<SolveResult>> futures = new ArrayList<>();
+    for (Map.Entry<String, Command> entry : _commands.entrySet()) {
+      String label = entry.getKey();
+      Command command = entry.getValue();
+      A4Options options = _options.dup();
+      futures.add(_executor.submit(() -> solve(label, command, options)));
+    }
+
+    List<SolveResult> results = new ArrayList<>();
+    Iterator<Map.Entry<String, Command>> entries = _commands.entrySet().iterator();
+    try {
+      for (Future<SolveResult> future : futures) {
+        Map.Entry<String, Command> entry = entries.next();
+        try {
+          results.add(future.get());
+        } catch (ExecutionException e) {
+          results.add(
+              new SolveResult(
+                  entry.getKey(), entry.getValue().overall, null, e.getCause().toString(), 0, 0));
+        }
+      }
+    } catch (InterruptedException e) {
+      for (Future<SolveResult> future : futures) future.cancel(false);
+      throw e;
+    }
+    return new SolveReport(moduleName, results, System.nanoTime() - start);
+  }
+
+  /**
+   * Create the pool of daemon threads shared by all races, as many threads as processors.
+   *
+   * @return (ExecutorService) - the pool
+   */
+  private static ExecutorService createRaceExecutor() {
+    AtomicInteger threads = new AtomicInteger();
+    return Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        runnable -> {
+          Thread thread = new Thread(runnable, "race-" + threads.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * Create the default portfolio of solver configurations for race: the pure-Java SAT4J solver with
+   * different symmetry-breaking levels and skolem depths.
+   *
+   * @return (Map<String, A4Options>) - the configurations by their names (i.e.,
+   *     sat4j-symmetry0-skolem0)
+   */
+  public static Map<String, A4Options> createSolverPortfolio() {
+    Map<String, A4Options> portfolio = new LinkedHashMap<>();
+    int[][] symmetriesAndSkolemDepths = {{20, 0}, {0, 0}, {40, 0}, {20, 1}, {20, 2}};
+    for (int[] symmetryAndSkolemDepth : symmetriesAndSkolemDepths) {
+      A4Options options = new A4Options();
+      options.solver = A4Options.SatSolver.SAT4J;
+      options.symmetry = symmetryAndSkolemDepth[0];
+      options.skolemDepth = symmetryAndSkolemDepth[1];
+      portfolio.put("sat4j-symmetry" + options.symmetry + "-skolem" + options.skolemDepth, options);
+    }
+    return portfolio;
+  }
+
+  /**
+   * Execute the given command with each solver configuration of the given portfolio concurrently
+   * and take the first answer (SAT or UNSAT). The configuration answered is recorded in the result
+   * and the results of the other configurations are discarded.
+   *
+   * <p>The configurations are executed by the pool shared by all races, as many threads as
+   * processors. Configurations not yet solving when the answer is taken are stopped (see
+   * TimingReporter), but a configuration already solving can not be stopped and keeps its thread
+   * until its solver finishes, so the next races wait for the thread instead of adding solvers.
+   *
+   * @param _label (String) - the label of the command (i.e., showSimpleSequence)
+   * @param _command (Command) - a command whose formula is not including the facts of this module
+   * @param _portfolio (Map<String, A4Options>) - not empty solver configurations by their names
+   *     (i.e., createSolverPortfolio), copied for each execution
+   * @return (SolveResult) - the first answer, or the last error if no configuration answered
+   * @throws InterruptedException - interrupted while waiting for the answer. Configurations are
+   *     stopped as when answered.
+   */
+  public SolveResult race(String _label, Command _command, Map<String, A4Options> _portfolio)
+      throws InterruptedException {
+    AtomicBoolean answered = new AtomicBoolean();
+    CompletionService<SolveResult> completionService =
+        new ExecutorCompletionService<>(raceExecutor);
+    List<Future<SolveResult>> futures = new ArrayList<>();
+    for (Map.Entry<String, A4Options> entry : _portfolio.entrySet()) {
+      String configuration = entry.getKey();
+      A4Options options = entry.getValue().dup();
+      futures.add(
+          completionService.submit(
+              () -> new SolveResult(solve(_label, _command, options, answered), configuration)));
+    }
+
+    SolveResult answer = null;
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          answer = completionService.take().get();
+        } catch (ExecutionException e) {
+          answer = new SolveResult(_label, _command.overall, null, e.getCause().toString(), 0, 0);
+        }
+        if (answer.getError() == null) break; // answered
+      }
+    } finally {
+      answered.set(true);
+      for (Future<SolveResult> future : futures) future.cancel(true);
+    }
+    return answer;
+  }
+
+  /**
+   * Race the solver configurations of the given portfolio for each of the given commands, one
+   * command after another. Configurations still solving a command when its answer is taken keep
+   * threads of the pool shared by all races, so the next commands race on the remaining threads.
+   *
+   * @param _commands (Map<String, Command>) - commands by their labels (i.e., createRunCommands)
+   * @param _portfolio (Map<String, A4Options>) - not empty solver configurations by their names
+   * @return (SolveReport) - the first answers in the iteration order of the given map with the
+   *     numbers of answers by configurations
+   * @throws InterruptedException - interrupted while waiting for an answer
+   * @see #race(String, Command, Map)
+   */
+  public SolveReport raceAll(Map<String, Command> _commands, Map<String, A4Options> _portfolio)
+      throws InterruptedException {
+    long start = System.nanoTime();
+    List<SolveResult> results = new ArrayList<>();
+    for (Map.Entry<String, Command> entry : _commands.entrySet())
+      results.add(race(entry.getKey(), entry.getValue(), _portfolio));
+    return new SolveReport(moduleName, results, System.nanoTime() - start);
+  }
+
+  /**
+   * Execute the given command starting from the given minimal overall scope and growing the scope
+   * by the given step until an instance is found or the scope exceeds the given ceiling, so the
+   * instance found is in the smallest scope tried. The signatures and facts of this module are
+   * reused by all steps, while each step is translated to Kodkod and CNF again since Kodkod can not
+   * grow the bounds of a translation.
+   *
+   * @param _label (String) - the label of the command (i.e., showSimpleSequence)
+   * @param _command (Command) - a command whose formula is not including the facts of this module.
+   *     The overall scope is replaced at each step. Other settings (i.e., scopes of signatures) are
+   *     kept.
+   * @param _minScope (int) - the overall scope of the first step (i.e., 1)
+   * @param _maxScope (int) - the ceiling of the overall scope (i.e., 12)
+   * @param _step (int) - the scope added at each step (i.e., 1)
+   * @param _options (A4Options) - the options of the analysis
+   * @return (SolveReport) - the result of each step in the order of scopes. The last result is
+   *     satisfiable if an instance is found.
+   */
+  public SolveReport escalate(
+      String _label,
+      Command _command,
+      int _minScope,
+      int _maxScope,
+      int _step,
+      A4Options _options) {
+    long start = System.nanoTime();
+    List<SolveResult> results = new ArrayList<>();
+    for (int scope = _minScope; scope <= _maxScope; scope += Math.max(1, _step)) {
+      Command command =
+          new Command(_command.check, scope, _command.bitwidth, _command.maxseq, _command.formula)
+              .change(_command.scope);
+      SolveResult result = solve(_label, command, _options);
+      results.add(result);
+      if (result.isSatisfiable() || result.getError() != null) break;
+    }
+    return new SolveReport(moduleName, results, System.nanoTime() - start);
+  }
+
+  /**
+   * Execute the given command with the facts of this module using Alloy's analysis.
+   *
+   * @param _command (Command) - a command whose formula is not including the facts of this module
+   *     (i.e., new Command(false, 6, -1, -1, mainSig.some()))
+   * @param _options (A4Options) - the options of the analysis (i.e., the solver)
+   * @param _reporter (A4Reporter) - the reporter of the analysis. null to not report.
+   * @return (A4Solution) - the solution (satisfiable or not)
+   */
+  public A4Solution execute(Command _command, A4Options _options, A4Reporter _reporter) {
+    return TranslateAlloyToKodkod.execute_command(
+        _reporter == null ? A4Reporter.NOP : _reporter,
+        sigs,
+        _command.change(_command.formula.and(facts)),
+        _options);
+  }
+}
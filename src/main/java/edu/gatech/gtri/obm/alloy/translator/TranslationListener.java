@@ -0,0 +1,19 @@
+package edu.gatech.gtri.obm.alloy.translator;
+
+/**
+ * A listener notified of the progress of translations by OBMXMI2Alloy.createAlloyFiles. The
+ * listener is called from the threads running translations, so a listener updating a GUI needs to
+ * pass the result to the GUI thread (i.e., using SwingUtilities.invokeLater).
+ */
+@FunctionalInterface
+public interface TranslationListener {
+
+  /**
+   * Called when a translation is finished.
+   *
+   * @param _result (TranslationResult) - the result of the finished translation
+   * @param _finished (int) - the number of finished translations including this one
+   * @param _total (int) - the number of all translations
+   */
+  void translated(TranslationResult _result, int _finished, int _total);
+}
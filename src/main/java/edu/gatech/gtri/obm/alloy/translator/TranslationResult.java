@@ -0,0 +1,158 @@
+package edu.gatech.gtri.obm.alloy.translator;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+/** The result of translating a class to an alloy file by OBMXMI2Alloy. */
+public final class TranslationResult {
+
+  /** the qualified name of the translated class */
+  private final String qualifiedName;
+  /** the output alloy file */
+  private final File outputFile;
+  /** true if the output file is created */
+  private final boolean success;
+  /** messages collected during the translation */
+  private final List<String> messages;
+  /** error messages collected during the translation */
+  private final List<String> errorMessages;
+  /** statistics of traversing classes from the translated class, or null if not traversed */
+  private final String traversalStatistics;
+  /** the time taken by the translation in nanoseconds */
+  private final long elapsedNanos;
+  /** the translated alloy module when translated in memory */
+  private final String text;
+
+  /**
+   * A constructor
+   *
+   * @param _qualifiedName (String) - the qualified name of the translated class
+   * @param _outputFile (File) - the output alloy file
+   * @param _success (boolean) - true if the output file is created
+   * @param _messages (List<String>) - messages collected during the translation
+   * @param _errorMessages (List<String>) - error messages collected during the translation
+   * @param _traversalStatistics (String) - statistics of traversing classes, or null
+   * @param _elapsedNanos (long) - the time taken by the translation in nanoseconds
+   */
+  TranslationResult(
+      String _qualifiedName,
+      File _outputFile,
+      boolean _success,
+      List<String> _messages,
+      List<String> _errorMessages,
+      String _traversalStatistics,
+      long _elapsedNanos) {
+    this.qualifiedName = _qualifiedName;
+    this.outputFile = _outputFile;
+    this.success = _success;
+    this.messages = Collections.unmodifiableList(_messages);
+    this.errorMessages = Collections.unmodifiableList(_errorMessages);
+    this.traversalStatistics = _traversalStatistics;
+    this.elapsedNanos = _elapsedNanos;
+    this.text = null;
+  }
+
+  /**
+   * A constructor for a translation in memory
+   *
+   * @param _result (TranslationResult) - the result of the translation without the text
+   * @param _text (String) - the translated alloy module
+   */
+  TranslationResult(TranslationResult _result, String _text) {
+    this.qualifiedName = _result.qualifiedName;
+    this.outputFile = _result.outputFile;
+    this.success = _result.success;
+    this.messages = _result.messages;
+    this.errorMessages = _result.errorMessages;
+    this.traversalStatistics = _result.traversalStatistics;
+    this.elapsedNanos = _result.elapsedNanos;
+    this.text = _text;
+  }
+
+  /**
+   * Get method for the qualified name
+   *
+   * @return (String) - the qualified name of the translated class
+   */
+  public String getQualifiedName() {
+    return this.qualifiedName;
+  }
+
+  /**
+   * Get method for the output file
+   *
+   * @return (File) - the output alloy file, or null if translated in memory
+   */
+  public File getOutputFile() {
+    return this.outputFile;
+  }
+
+  /**
+   * Check if the translation is successful
+   *
+   * @return (boolean) - true if the output file is created, otherwise false
+   */
+  public boolean isSuccess() {
+    return this.success;
+  }
+
+  /**
+   * Get messages collected during the translation
+   *
+   * @return (List<String>) - an unmodifiable list of message strings
+   */
+  public List<String> getMessages() {
+    return this.messages;
+  }
+
+  /**
+   * Get error messages collected during the translation
+   *
+   * @return (List<String>) - an unmodifiable list of error message strings
+   */
+  public List<String> getErrorMessages() {
+    return this.errorMessages;
+  }
+
+  /**
+   * Get statistics of traversing classes from the translated class
+   *
+   * @return (String) - the numbers of traversed classes and primitive types, revisits skipped and
+   *     the maximum depth, or null if failed before traversing
+   */
+  public String getTraversalStatistics() {
+    return this.traversalStatistics;
+  }
+
+  /**
+   * Get the time taken by the translation
+   *
+   * @return (long) - the elapsed time in milliseconds
+   */
+  public long getElapsedMillis() {
+    return this.elapsedNanos / 1_000_000;
+  }
+
+  /**
+   * Get method for the translated alloy module when translated in memory
+   *
+   * @return (String) - the alloy module, or null if written to the output file or failed
+   */
+  public String getText() {
+    return this.text;
+  }
+
+  @Override
+  public String toString() {
+    return qualifiedName
+        + (!success
+            ? " failed: " + errorMessages
+            : outputFile != null
+                ? " -> " + outputFile.getAbsolutePath()
+                : " -> " + (text == null ? 0 : text.length()) + " characters")
+        + " ("
+        + getElapsedMillis()
+        + " ms)";
+  }
+}
@@ -15,7 +15,6 @@ import org.eclipse.uml2.uml.ConnectorEnd;
 import org.eclipse.uml2.uml.Element;
 import org.eclipse.uml2.uml.NamedElement;
 import org.eclipse.uml2.uml.Property;
-import org.eclipse.uml2.uml.Stereotype;
 
 /**
  * Utility class for UML2 to extract informations
@@ -136,6 +135,7 @@ public class UML2Utils {
    * @param _element(Element) - an element whose stereotype properties to be found
    * @param _streotypeName(String) - stereotype name in string
    * @param _streotypePropertyNames(String[]) -stereotype property(tag) names
+   * @param _stereotypeIndex(StereotypeIndex) - the stereotype applications of the loaded model
    * @param _allMessages(List<String>) - all messages where message(s_ may be added while executing
    *     this method.
    * @return (Map<String, List<Property>) - a map (key = tag/property name, value = properties) or
@@ -145,14 +145,14 @@ public class UML2Utils {
       Element _element,
       String _streotypeName,
       String[] _streotypePropertyNames,
+      StereotypeIndex _stereotypeIndex,
       List<String> _allMessages) {
 
     Map<String, List<Property>> propertysByTagNames = new HashMap<>();
-    Stereotype st = null;
-    if ((st = _element.getAppliedStereotype(_streotypeName)) != null) {
+    if (_stereotypeIndex.isApplied(_element, _streotypeName)) {
       for (String propertyName : _streotypePropertyNames) {
         List<Property> results = new ArrayList<>();
-        Object pObject = (_element.getValue(st, propertyName));
+        Object pObject = _stereotypeIndex.getValue(_element, _streotypeName, propertyName);
         if (pObject instanceof List) {
           @SuppressWarnings("unchecked")
           List<Object> properties = (List<Object>) pObject;
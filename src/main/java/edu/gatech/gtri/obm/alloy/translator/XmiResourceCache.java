@@ -0,0 +1,250 @@
+package edu.gatech.gtri.obm.alloy.translator;
+
+import edu.umd.omgutil.EMFUtil;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.uml2.uml.UMLPackage;
+
+/**
+ * An on-disk cache of loaded xmi resources stored in EMF's binary resource format.
+ *
+ * <p>An entry is keyed by the SHA-256 hash of the xmi file content together with the versions of
+ * the translator, omgutil and UML2, so a changed xmi file or a different translator/omgutil never
+ * reads a stale entry. The resource files the xmi file depends on (i.e., profiles next to the xmi
+ * file) are recorded with their hashes in the entry, and an entry is not used when one of them is
+ * changed. Loading an entry skips the translator's xml parsing of the xmi file. The resources it
+ * depends on are still loaded from their files when resolved.
+ *
+ * <p>A warm load does not skip all xml parsing: omgutil's SysMLAdapter is only created from a file
+ * and parses the xmi file on its own (see OBMXMI2Alloy.loadXmiFile). So a warm load saves the
+ * translator's parse of the xmi file, not omgutil's. XmiResourceCacheBenchmark (test sources)
+ * measures cold and warm loads and the part left to omgutil.
+ *
+ * <p>The resource is loaded as the same type of resource as loading the xmi file (a XMLResource)
+ * and the xmi:ids of its objects are restored, so the objects have the same URIs as loading the xmi
+ * file. The cache is best effort - any problem reading or writing an entry results in loading the
+ * xmi file as usual.
+ */
+final class XmiResourceCache {
+
+  /** Increase when the way entries are written is changed */
+  private static final String FORMAT_VERSION = "2";
+  /** file extension for cache entries */
+  private static final String EXTENSION = ".obmbin";
+  /** the versions of the translator, omgutil and UML2 included in the key of all entries */
+  private static final String VERSIONS =
+      FORMAT_VERSION
+          + ";"
+          + versionOf(XmiResourceCache.class)
+          + ";"
+          + versionOf(EMFUtil.class)
+          + ";"
+          + versionOf(UMLPackage.class);
+  /** the options to save and load a XMLResource in EMF's binary resource format */
+  private static final Map<String, Object> BINARY_OPTIONS =
+      Collections.singletonMap(XMLResource.OPTION_BINARY, Boolean.TRUE);
+
+  /** the directory where entries are stored */
+  private final File cacheDirectory;
+
+  /**
+   * A constructor
+   *
+   * @param _cacheDirectory(File) - the directory where entries are stored. Created if not exist.
+   */
+  XmiResourceCache(File _cacheDirectory) {
+    this.cacheDirectory = _cacheDirectory;
+  }
+
+  /**
+   * Get the key of the cache entry for the given xmi file.
+   *
+   * @param _xmiFile(File) - the xmi file
+   * @return (String) - a hex string of SHA-256 hash of the file content and versions
+   * @throws IOException - failed to read the xmi file
+   */
+  String keyOf(File _xmiFile) throws IOException {
+    return hashOf(_xmiFile, VERSIONS);
+  }
+
+  /**
+   * Load the resource of the given xmi file from the cache entry of the given key into the given
+   * resource set. The resources the xmi file depends on are resolved as loading the xmi file.
+   *
+   * @param _rs(ResourceSet) - the resource set to load the resource into
+   * @param _xmiFile(File) - the xmi file the entry is created from
+   * @param _key(String) - the key of the entry
+   * @return (Resource) - the loaded resource or null if no entry exists, a resource file the xmi
+   *     file depends on is changed, or fails to load
+   */
+  Resource load(ResourceSet _rs, File _xmiFile, String _key) {
+    File entry = new File(cacheDirectory, _key + EXTENSION);
+    if (!entry.isFile()) return null;
+
+    // use the xmi file's uri so references relative to the xmi file resolve the same
+    Resource resource = null;
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(entry.toPath())))) {
+      // dependencies - the uri and the hash of each resource file
+      for (int i = in.readInt(); i > 0; i--) {
+        URI uri = URI.createURI(in.readUTF());
+        String hash = in.readUTF();
+        File file = new File(uri.toFileString());
+        if (!file.isFile() || !hash.equals(hashOf(file, "")))
+          throw new IOException(file + " is changed");
+      }
+      // xmi:ids in the order of the resource contents
+      List<String> ids = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; i--) ids.add(in.readBoolean() ? in.readUTF() : null);
+
+      resource = _rs.createResource(URI.createFileURI(_xmiFile.getAbsolutePath()));
+      if (resource instanceof XMLResource) {
+        resource.load(in, BINARY_OPTIONS);
+        if (restoreIDs((XMLResource) resource, ids)) {
+          EcoreUtil.resolveAll(_rs);
+          return resource;
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      // a broken, stale or incompatible entry - removed and loaded from the xmi file instead
+    }
+    if (resource != null) _rs.getResources().remove(resource);
+    entry.delete();
+    return null;
+  }
+
+  /**
+   * Save the given resource as the cache entry of the given key. The entry is written to a
+   * temporary file first and then moved so that a partially written entry is never read.
+   *
+   * @param _resource(Resource) - the resource loaded from a xmi file with its dependencies resolved
+   * @param _key(String) - the key of the entry
+   * @return (boolean) - true if the entry is saved, otherwise false
+   */
+  boolean save(Resource _resource, String _key) {
+    if (!(_resource instanceof XMLResource)) return false;
+    XMLResource resource = (XMLResource) _resource;
+    Path temp = null;
+    try {
+      Files.createDirectories(cacheDirectory.toPath());
+      temp = Files.createTempFile(cacheDirectory.toPath(), _key, ".tmp");
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        List<Resource> dependencies = new ArrayList<>();
+        for (Resource r : resource.getResourceSet().getResources())
+          if (r != resource && r.getURI() != null && r.getURI().isFile()) dependencies.add(r);
+        out.writeInt(dependencies.size());
+        for (Resource r : dependencies) {
+          out.writeUTF(r.getURI().toString());
+          out.writeUTF(hashOf(new File(r.getURI().toFileString()), ""));
+        }
+        List<String> ids = new ArrayList<>();
+        for (TreeIterator<EObject> it = resource.getAllContents(); it.hasNext(); )
+          ids.add(resource.getID(it.next()));
+        out.writeInt(ids.size());
+        for (String id : ids) {
+          out.writeBoolean(id != null);
+          if (id != null) out.writeUTF(id);
+        }
+        resource.save(out, BINARY_OPTIONS);
+      }
+      Files.move(
+          temp,
+          new File(cacheDirectory, _key + EXTENSION).toPath(),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      return true;
+    } catch (IOException | RuntimeException e) {
+      if (temp != null) temp.toFile().delete();
+      return false;
+    }
+  }
+
+  /**
+   * Set the given xmi:ids to the objects of the given resource in the order of the contents.
+   *
+   * @param _resource(XMLResource) - the resource loaded from a cache entry
+   * @param _ids(List<String>) - the ids (null for an object without id) saved with the entry
+   * @return (boolean) - true if set, false if the number of objects is not the same as the ids
+   */
+  private static boolean restoreIDs(XMLResource _resource, List<String> _ids) {
+    int i = 0;
+    for (TreeIterator<EObject> it = _resource.getAllContents(); it.hasNext(); i++) {
+      EObject eo = it.next();
+      if (i >= _ids.size()) return false;
+      if (_ids.get(i) != null) _resource.setID(eo, _ids.get(i));
+    }
+    return i == _ids.size();
+  }
+
+  /**
+   * Get SHA-256 hash of the given prefix and the content of the given file.
+   *
+   * @param _file(File) - the file
+   * @param _prefix(String) - the string hashed before the file content
+   * @return (String) - a hex string of the hash
+   * @throws IOException - failed to read the file
+   */
+  private static String hashOf(File _file, String _prefix) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    }
+    digest.update(_prefix.getBytes(StandardCharsets.UTF_8));
+    try (InputStream in =
+        new DigestInputStream(
+            new BufferedInputStream(Files.newInputStream(_file.toPath())), digest)) {
+      byte[] buffer = new byte[8192];
+      while (in.read(buffer) != -1) {}
+    }
+    StringBuilder hash = new StringBuilder();
+    for (byte b : digest.digest()) hash.append(String.format("%02x", b));
+    return hash.toString();
+  }
+
+  /**
+   * Get the version of the jar containing the given class. If the jar manifest does not have the
+   * implementation version, the location and the last modified time of the jar are used instead.
+   *
+   * @param _class(Class) - a class in the jar
+   * @return (String) - a string representing the version
+   */
+  private static String versionOf(Class<?> _class) {
+    Package p = _class.getPackage();
+    if (p != null && p.getImplementationVersion() != null) return p.getImplementationVersion();
+    CodeSource codeSource = _class.getProtectionDomain().getCodeSource();
+    if (codeSource == null || codeSource.getLocation() == null) return "unknown";
+    String location = codeSource.getLocation().toString();
+    try {
+      return location + "@" + new File(codeSource.getLocation().toURI()).lastModified();
+    } catch (Exception e) {
+      return location;
+    }
+  }
+}
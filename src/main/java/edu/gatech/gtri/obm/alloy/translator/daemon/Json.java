@@ -0,0 +1,261 @@
+package edu.gatech.gtri.obm.alloy.translator.daemon;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal JSON reader and writer for the daemon protocol. Objects are read as Map, arrays as
+ * List, integral numbers (without a fraction or an exponent) as Long, other numbers as Double, and
+ * true/false/null as Boolean/null.
+ */
+final class Json {
+
+  /** the text being parsed */
+  private final String text;
+  /** the position in the text */
+  private int pos;
+
+  private Json(String _text) {
+    this.text = _text;
+  }
+
+  /**
+   * Parse the given JSON text.
+   *
+   * @param _text (String) - JSON text
+   * @return (Object) - Map, List, String, Long, Double, Boolean or null
+   * @throws IllegalArgumentException - the text is not a valid JSON
+   */
+  static Object parse(String _text) {
+    Json json = new Json(_text);
+    Object value = json.readValue();
+    json.skipWhitespace();
+    if (json.pos != _text.length()) throw json.error("unexpected text after value");
+    return value;
+  }
+
+  /**
+   * Write the given value as JSON text.
+   *
+   * @param _value (Object) - Map, Iterable, String, Number, Boolean or null. Other objects are
+   *     written as strings.
+   * @return (String) - JSON text in a line
+   */
+  static String write(Object _value) {
+    StringBuilder sb = new StringBuilder();
+    write(_value, sb);
+    return sb.toString();
+  }
+
+  private static void write(Object _value, StringBuilder _sb) {
+    if (_value == null) _sb.append("null");
+    else if (_value instanceof Boolean) _sb.append(_value);
+    else if (_value instanceof Double || _value instanceof Float) {
+      double d = ((Number) _value).doubleValue();
+      if (Double.isNaN(d) || Double.isInfinite(d)) _sb.append("null");
+      else _sb.append(_value);
+    } else if (_value instanceof Number) _sb.append(_value);
+    else if (_value instanceof Map) {
+      _sb.append('{');
+      Iterator<? extends Map.Entry<?, ?>> it = ((Map<?, ?>) _value).entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<?, ?> entry = it.next();
+        writeString(String.valueOf(entry.getKey()), _sb);
+        _sb.append(':');
+        write(entry.getValue(), _sb);
+        if (it.hasNext()) _sb.append(',');
+      }
+      _sb.append('}');
+    } else if (_value instanceof Iterable) {
+      _sb.append('[');
+      Iterator<?> it = ((Iterable<?>) _value).iterator();
+      while (it.hasNext()) {
+        write(it.next(), _sb);
+        if (it.hasNext()) _sb.append(',');
+      }
+      _sb.append(']');
+    } else writeString(_value.toString(), _sb);
+  }
+
+  private static void writeString(String _s, StringBuilder _sb) {
+    _sb.append('"');
+    for (int i = 0; i < _s.length(); i++) {
+      char c = _s.charAt(i);
+      switch (c) {
+        case '"':
+          _sb.append("\\\"");
+          break;
+        case '\\':
+          _sb.append("\\\\");
+          break;
+        case '\n':
+          _sb.append("\\n");
+          break;
+        case '\r':
+          _sb.append("\\r");
+          break;
+        case '\t':
+          _sb.append("\\t");
+          break;
+        default:
+          if (c < 0x20) _sb.append(String.format("\\u%04x", (int) c));
+          else _sb.append(c);
+      }
+    }
+    _sb.append('"');
+  }
+
+  private Object readValue() {
+    skipWhitespace();
+    if (pos >= text.length()) throw error("unexpected end");
+    char c = text.charAt(pos);
+    switch (c) {
+      case '{':
+        return readObject();
+      case '[':
+        return readArray();
+      case '"':
+        return readString();
+      case 't':
+        return readLiteral("true", Boolean.TRUE);
+      case 'f':
+        return readLiteral("false", Boolean.FALSE);
+      case 'n':
+        return readLiteral("null", null);
+      default:
+        return readNumber();
+    }
+  }
+
+  private Map<String, Object> readObject() {
+    Map<String, Object> map = new LinkedHashMap<>();
+    pos++; // {
+    skipWhitespace();
+    if (peek() == '}') {
+      pos++;
+      return map;
+    }
+    while (true) {
+      skipWhitespace();
+      if (peek() != '"') throw error("expected a string key");
+      String key = readString();
+      skipWhitespace();
+      expect(':');
+      map.put(key, readValue());
+      skipWhitespace();
+      if (peek() == ',') pos++;
+      else {
+        expect('}');
+        return map;
+      }
+    }
+  }
+
+  private List<Object> readArray() {
+    List<Object> list = new ArrayList<>();
+    pos++; // [
+    skipWhitespace();
+    if (peek() == ']') {
+      pos++;
+      return list;
+    }
+    while (true) {
+      list.add(readValue());
+      skipWhitespace();
+      if (peek() == ',') pos++;
+      else {
+        expect(']');
+        return list;
+      }
+    }
+  }
+
+  private String readString() {
+    StringBuilder sb = new StringBuilder();
+    pos++; // "
+    while (true) {
+      if (pos >= text.length()) throw error("unterminated string");
+      char c = text.charAt(pos++);
+      if (c == '"') return sb.toString();
+      if (c != '\\') {
+        sb.append(c);
+        continue;
+      }
+      if (pos >= text.length()) throw error("unterminated string");
+      char e = text.charAt(pos++);
+      switch (e) {
+        case 'b':
+          sb.append('\b');
+          break;
+        case 'f':
+          sb.append('\f');
+          break;
+        case 'n':
+          sb.append('\n');
+          break;
+        case 'r':
+          sb.append('\r');
+          break;
+        case 't':
+          sb.append('\t');
+          break;
+        case 'u':
+          if (pos + 4 > text.length()) throw error("invalid unicode escape");
+          try {
+            sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+          } catch (NumberFormatException ex) {
+            throw error("invalid unicode escape");
+          }
+          pos += 4;
+          break;
+        default: // " \ /
+          sb.append(e);
+      }
+    }
+  }
+
+  private Object readLiteral(String _literal, Object _value) {
+    if (!text.startsWith(_literal, pos)) throw error("unexpected text");
+    pos += _literal.length();
+    return _value;
+  }
+
+  private Number readNumber() {
+    int start = pos;
+    while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) pos++;
+    String number = text.substring(start, pos);
+    if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+      try {
+        return Long.valueOf(number);
+      } catch (NumberFormatException e) {
+        // out of the range of long or invalid - read as Double below
+      }
+    }
+    try {
+      return Double.valueOf(number);
+    } catch (NumberFormatException e) {
+      throw error("invalid value");
+    }
+  }
+
+  private void skipWhitespace() {
+    while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+  }
+
+  private char peek() {
+    if (pos >= text.length()) throw error("unexpected end");
+    return text.charAt(pos);
+  }
+
+  private void expect(char _c) {
+    if (peek() != _c) throw error("expected '" + _c + "'");
+    pos++;
+  }
+
+  private IllegalArgumentException error(String _message) {
+    return new IllegalArgumentException("Invalid JSON at " + pos + ": " + _message);
+  }
+}
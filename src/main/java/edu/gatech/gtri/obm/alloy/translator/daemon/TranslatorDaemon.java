@@ -0,0 +1,382 @@
+package edu.gatech.gtri.obm.alloy.translator.daemon;
+
+import edu.gatech.gtri.obm.alloy.translator.OBMXMI2Alloy;
+import edu.umd.omgutil.UMLModelErrorException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A long-running translator keeping the alloy library and loaded xmi models in memory. Requests are
+ * read as JSON objects, one per line, from stdin (or from connections to a local port) and a JSON
+ * response is written as a line for each request.
+ *
+ * <p>Usage: TranslatorDaemon [--port port] [--library libraryDirectory] [--cache cacheDirectory]
+ *
+ * <ul>
+ *   <li>--port - listen on the given port of the loopback address instead of using stdin/stdout
+ *   <li>--library - the directory containing Transfer.als and utilities(folder). The library in the
+ *       translator jar is used if not given.
+ *   <li>--cache - the directory to cache loaded xmi files (see OBMXMI2Alloy.setXmiCacheDirectory)
+ * </ul>
+ *
+ * <p>Requests:
+ *
+ * <pre>
+ * {"id": "1", "command": "translate", "model": "C:\\OBM.xmi",
+ *  "qualifiedNames": ["Model::4.1 Basic Examples::4.1.2 Loops::Loop"], "output": "C:\\als"}
+ * {"id": "2", "command": "load", "model": "C:\\OBM.xmi"}
+ * {"id": "3", "command": "unload", "model": "C:\\OBM.xmi"}
+ * {"id": "4", "command": "ping"}
+ * {"id": "5", "command": "shutdown"}
+ * </pre>
+ *
+ * <p>"command" is "translate" if omitted. For "translate", "output" is an alloy file when
+ * translating one qualified name and the output ends with ".als", otherwise a directory where files
+ * named as [class name].als are written. When "output" is omitted, the classes are translated in
+ * memory and the alloy modules are returned as "text" of the results instead of written to files. A
+ * model is loaded at the first request using it and loaded again only when the xmi file is
+ * modified.
+ *
+ * <p>Responses include "success", "error" when failed, "loaded" (true when the request loaded the
+ * model, false when the model was already in memory), "loadMillis" (the time loading or waiting for
+ * the model), "totalMillis", and "results" for each qualified name with "output" (or "text"),
+ * "success", "millis", "messages" and "errors".
+ */
+public class TranslatorDaemon {
+
+  /** A model loaded in memory */
+  private static class ResidentModel {
+    /** the translator having the model loaded */
+    final OBMXMI2Alloy translator;
+    /** the last modified time of the xmi file when loaded */
+    final long lastModified;
+    /** the length of the xmi file when loaded */
+    final long length;
+
+    ResidentModel(OBMXMI2Alloy _translator, File _xmiFile) {
+      this.translator = _translator;
+      this.lastModified = _xmiFile.lastModified();
+      this.length = _xmiFile.length();
+    }
+
+    boolean isCurrent(File _xmiFile) {
+      return _xmiFile.lastModified() == lastModified && _xmiFile.length() == length;
+    }
+  }
+
+  /** The directory containing the alloy library. null to use the library in the jar. */
+  private final String libraryPath;
+  /** The directory to cache loaded xmi files. null to not use the cache. */
+  private final File cacheDirectory;
+  /** Loaded (or being loaded) models by their canonical file path */
+  private final Map<String, CompletableFuture<ResidentModel>> residentModels =
+      new ConcurrentHashMap<>();
+  /** false when the shutdown is requested */
+  private volatile boolean running = true;
+
+  /**
+   * A constructor
+   *
+   * @param _libraryPath (String) - the directory containing Transfer.als and utilities(folder).
+   *     null to use the library in the translator jar.
+   * @param _cacheDirectory (File) - the directory to cache loaded xmi files. null to not use the
+   *     cache.
+   */
+  public TranslatorDaemon(String _libraryPath, File _cacheDirectory) {
+    this.libraryPath = _libraryPath;
+    this.cacheDirectory = _cacheDirectory;
+  }
+
+  public static void main(String[] args) throws IOException {
+    Integer port = null;
+    String libraryPath = null;
+    File cacheDirectory = null;
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      if (args[i].equals("--port")) port = Integer.valueOf(args[i + 1]);
+      else if (args[i].equals("--library")) libraryPath = args[i + 1];
+      else if (args[i].equals("--cache")) cacheDirectory = new File(args[i + 1]);
+      else {
+        System.err.println("Unknown option: " + args[i]);
+        System.exit(1);
+      }
+    }
+
+    TranslatorDaemon daemon = new TranslatorDaemon(libraryPath, cacheDirectory);
+    if (port == null)
+      daemon.serve(
+          new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+          new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+    else daemon.listen(port);
+  }
+
+  /**
+   * Accept connections on the given port of the loopback address and serve requests of each
+   * connection in its own thread until the shutdown is requested.
+   *
+   * @param _port (int) - the port number
+   * @throws IOException - failed to listen on the port
+   */
+  public void listen(int _port) throws IOException {
+    try (ServerSocket serverSocket =
+        new ServerSocket(_port, 50, InetAddress.getLoopbackAddress())) {
+      System.err.println("Listening on " + serverSocket.getLocalSocketAddress());
+      while (running) {
+        Socket socket = serverSocket.accept();
+        Thread thread =
+            new Thread(
+                () -> {
+                  try (Socket s = socket) {
+                    serve(
+                        new BufferedReader(
+                            new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8)),
+                        new BufferedWriter(
+                            new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)));
+                    if (!running) serverSocket.close();
+                  } catch (IOException e) {
+                    System.err.println(e.getMessage());
+                  }
+                });
+        thread.setDaemon(true);
+        thread.start();
+      }
+    } catch (IOException e) {
+      if (running) throw e; // otherwise closed by shutdown
+    }
+  }
+
+  /**
+   * Serve requests read from the given reader until the end of input or the shutdown is requested.
+   *
+   * @param _in (BufferedReader) - the reader to read requests (a JSON object per line)
+   * @param _out (Writer) - the writer to write responses (a JSON object per line)
+   * @throws IOException - failed to read or write
+   */
+  public void serve(BufferedReader _in, Writer _out) throws IOException {
+    String line;
+    while (running && (line = _in.readLine()) != null) {
+      if (line.trim().isEmpty()) continue;
+      Map<String, Object> response;
+      try {
+        Object request = Json.parse(line);
+        if (!(request instanceof Map))
+          throw new IllegalArgumentException("A request must be a JSON object.");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> requestMap = (Map<String, Object>) request;
+        response = handle(requestMap);
+      } catch (IllegalArgumentException e) {
+        response = new LinkedHashMap<>();
+        response.put("success", false);
+        response.put("error", e.getMessage());
+      } catch (RuntimeException e) { // a failed request does not stop serving other requests
+        response = new LinkedHashMap<>();
+        response.put("success", false);
+        response.put("error", e.toString());
+      }
+      _out.write(Json.write(response));
+      _out.write('\n');
+      _out.flush();
+    }
+  }
+
+  /**
+   * Handle a request.
+   *
+   * @param _request (Map<String, Object>) - the request
+   * @return (Map<String, Object>) - the response
+   */
+  public Map<String, Object> handle(Map<String, Object> _request) {
+    long start = System.nanoTime();
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("id", _request.get("id"));
+    String command =
+        _request.containsKey("command") ? String.valueOf(_request.get("command")) : "translate";
+    try {
+      switch (command) {
+        case "translate":
+          translate(_request, response);
+          break;
+        case "load":
+          residentModel(requiredString(_request, "model"), response);
+          break;
+        case "unload":
+          residentModels.remove(canonicalPath(new File(requiredString(_request, "model"))));
+          break;
+        case "ping":
+          break;
+        case "shutdown":
+          running = false;
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown command: " + command);
+      }
+      if (!response.containsKey("success")) response.put("success", true);
+    } catch (IllegalArgumentException | IOException e) {
+      response.put("success", false);
+      response.put("error", e.getMessage());
+    } catch (RuntimeException e) { // i.e., a failure of the translator
+      response.put("success", false);
+      response.put("error", e.toString());
+    }
+    response.put("totalMillis", (System.nanoTime() - start) / 1_000_000);
+    return response;
+  }
+
+  /**
+   * Translate the qualified names of the request and put results to the response.
+   *
+   * @param _request (Map<String, Object>) - the translate request
+   * @param _response (Map<String, Object>) - the response
+   */
+  private void translate(Map<String, Object> _request, Map<String, Object> _response)
+      throws IOException {
+    Object names = _request.get("qualifiedNames");
+    if (!(names instanceof List) || ((List<?>) names).isEmpty())
+      throw new IllegalArgumentException("\"qualifiedNames\" must be a non-empty array.");
+    // no output - translated in memory
+    File output =
+        _request.containsKey("output") ? new File(requiredString(_request, "output")) : null;
+    boolean outputIsFile =
+        output != null && ((List<?>) names).size() == 1 && output.getName().endsWith(".als");
+    if (output != null && !outputIsFile && !output.isDirectory() && !output.mkdirs())
+      throw new IOException("Failed to create the output directory " + output.getAbsolutePath());
+
+    ResidentModel model = residentModel(requiredString(_request, "model"), _response);
+
+    boolean success = true;
+    List<Map<String, Object>> results = new ArrayList<>();
+    // a translator translates one class at a time
+    synchronized (model) {
+      for (Object name : (List<?>) names) {
+        String qualifiedName = String.valueOf(name);
+        File outputFile =
+            output == null || outputIsFile
+                ? output
+                : new File(
+                    output, qualifiedName.substring(qualifiedName.lastIndexOf(':') + 1) + ".als");
+        long start = System.nanoTime();
+        String text = null;
+        boolean translated;
+        if (outputFile == null) {
+          text = model.translator.translateToString(qualifiedName);
+          translated = text != null;
+        } else translated = model.translator.createAlloyFile(qualifiedName, outputFile);
+        success = success && translated;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("qualifiedName", qualifiedName);
+        if (outputFile != null) result.put("output", outputFile.getAbsolutePath());
+        else result.put("text", text);
+        result.put("success", translated);
+        result.put("millis", (System.nanoTime() - start) / 1_000_000);
+        result.put("messages", new ArrayList<>(model.translator.getMessages()));
+        result.put("errors", new ArrayList<>(model.translator.getErrorMessages()));
+        results.add(result);
+      }
+    }
+    _response.put("success", success);
+    _response.put("results", results);
+  }
+
+  /**
+   * Return the loaded model of the given xmi file. The model is loaded if not loaded yet or the
+   * file is modified since loaded. Concurrent requests for the same model wait for one load, the
+   * future of the model put to residentModels by the request loading it, while requests for other
+   * models are not blocked. A failed load is removed, so the next request loads the model again.
+   * "loaded" and "loadMillis" are put to the given response.
+   *
+   * @param _xmiFileName (String) - the xmi file name
+   * @param _response (Map<String, Object>) - the response
+   * @return (ResidentModel) - the loaded model
+   */
+  private ResidentModel residentModel(String _xmiFileName, Map<String, Object> _response)
+      throws IOException {
+    File xmiFile = new File(_xmiFileName);
+    if (!xmiFile.isFile())
+      throw new FileNotFoundException(xmiFile.getAbsolutePath() + " not found.");
+    String key = canonicalPath(xmiFile);
+
+    long start = System.nanoTime();
+    boolean loaded = false;
+    ResidentModel model = null;
+    while (model == null) {
+      CompletableFuture<ResidentModel> loading = new CompletableFuture<>();
+      CompletableFuture<ResidentModel> future = residentModels.computeIfAbsent(key, k -> loading);
+      if (future == loading) {
+        loaded = true;
+        try {
+          loading.complete(loadModel(xmiFile));
+        } catch (IOException | RuntimeException e) {
+          residentModels.remove(key, loading);
+          loading.completeExceptionally(e);
+        }
+      }
+      try {
+        model = future.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+        if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+        throw e;
+      }
+      // modified since loaded by an earlier request - loaded again
+      if (future != loading && !model.isCurrent(xmiFile)) {
+        residentModels.remove(key, future);
+        model = null;
+      }
+    }
+    _response.put("loaded", loaded);
+    _response.put("loadMillis", (System.nanoTime() - start) / 1_000_000);
+    return model;
+  }
+
+  /**
+   * Load the given xmi file by a new translator.
+   *
+   * @param _xmiFile (File) - the xmi file
+   * @return (ResidentModel) - the loaded model
+   * @throws IOException - failed to load the xmi file
+   */
+  private ResidentModel loadModel(File _xmiFile) throws IOException {
+    OBMXMI2Alloy translator =
+        libraryPath == null ? new OBMXMI2Alloy() : new OBMXMI2Alloy(libraryPath);
+    translator.setXmiCacheDirectory(cacheDirectory);
+    try {
+      if (!translator.loadXmiFile(_xmiFile))
+        throw new IOException(String.join(" ", translator.getErrorMessages()));
+    } catch (UMLModelErrorException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+    return new ResidentModel(translator, _xmiFile);
+  }
+
+  private static String requiredString(Map<String, Object> _request, String _key) {
+    Object value = _request.get(_key);
+    if (!(value instanceof String) || ((String) value).isEmpty())
+      throw new IllegalArgumentException("\"" + _key + "\" is required.");
+    return (String) value;
+  }
+
+  private static String canonicalPath(File _file) {
+    try {
+      return _file.getCanonicalPath();
+    } catch (IOException e) {
+      return _file.getAbsolutePath();
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package edu.gatech.gtri.obm.alloy.translator.daemon;
+
+import edu.gatech.gtri.obm.alloy.translator.OBMXMI2Alloy;
+import edu.gatech.gtri.obm.alloy.translator.TranslationListener;
+import edu.gatech.gtri.obm.alloy.translator.TranslationResult;
+import edu.umd.omgutil.UMLModelErrorException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Translate every class in a xmi file having properties with OBM stereotypes (Model::OBM::Step,
+ * Model::OBM::Parameter or SysML::ParticipantProperty) into alloy files in a directory. Classes are
+ * translated concurrently and a manifest (manifest.json) listing the alloy files with their sizes
+ * and timings is written in the directory.
+ *
+ * <p>Usage: WholeModelTranslator xmiFile outputDirectory [--threads n] [--library libraryDirectory]
+ * [--cache cacheDirectory]
+ *
+ * <p>Example from a program (i.e., GUI):
+ *
+ * <pre>
+ * OBMXMI2Alloy.enableConcurrentTranslation(); // once, before any model is loaded
+ * OBMXMI2Alloy translator = new OBMXMI2Alloy();
+ * if (translator.loadXmiFile(new File("C:\\OBMModel.xmi"))) {
+ *   List&lt;TranslationResult&gt; results =
+ *       new WholeModelTranslator(translator)
+ *           .translate(new File("C:\\als"), executor,
+ *               (result, finished, total) -&gt; System.out.println(finished + "/" + total));
+ * }
+ * </pre>
+ */
+public class WholeModelTranslator {
+
+  /** The name of the manifest file written in the output directory */
+  public static final String MANIFEST_FILE_NAME = "manifest.json";
+
+  /** The translator having the xmi file loaded */
+  private final OBMXMI2Alloy translator;
+
+  /**
+   * A constructor
+   *
+   * @param _translator (OBMXMI2Alloy) - the translator having the xmi file loaded
+   */
+  public WholeModelTranslator(OBMXMI2Alloy _translator) {
+    this.translator = _translator;
+  }
+
+  /**
+   * Get qualified names of all classes to be translated.
+   *
+   * @return (List<String>) - qualified names in the order contained in the xmi file
+   */
+  public List<String> discoverClasses() {
+    return translator.streamClassQualifiedNames(true).collect(Collectors.toList());
+  }
+
+  /**
+   * Translate all discovered classes into alloy files in the given directory and write the
+   * manifest.
+   *
+   * @param _outputDirectory (File) - the directory alloy files and the manifest are written in.
+   *     Created if not exist.
+   * @param _executor (ExecutorService) - the executor to run translations
+   * @param _listener (TranslationListener) - the listener notified of finished translations. null
+   *     to not notify.
+   * @return (List<TranslationResult>) - results in the order of discoverClasses
+   * @throws IOException - failed to create the directory or write the manifest
+   * @throws InterruptedException - interrupted while waiting for translations
+   */
+  public List<TranslationResult> translate(
+      File _outputDirectory, ExecutorService _executor, TranslationListener _listener)
+      throws IOException, InterruptedException {
+    Files.createDirectories(_outputDirectory.toPath());
+    Instant startedAt = Instant.now();
+    long start = System.nanoTime();
+    List<TranslationResult> results =
+        translator.createAlloyFiles(discoverClasses(), _outputDirectory, _executor, _listener);
+    writeManifest(
+        new File(_outputDirectory, MANIFEST_FILE_NAME),
+        results,
+        startedAt,
+        (System.nanoTime() - start) / 1_000_000);
+    return results;
+  }
+
+  /**
+   * Write the manifest of the given results.
+   *
+   * @param _manifestFile (File) - the manifest file
+   * @param _results (List<TranslationResult>) - the results of translations
+   * @param _startedAt (Instant) - when the translations started
+   * @param _totalMillis (long) - the time taken by all translations
+   * @throws IOException - failed to write the manifest
+   */
+  private static void writeManifest(
+      File _manifestFile, List<TranslationResult> _results, Instant _startedAt, long _totalMillis)
+      throws IOException {
+    List<Map<String, Object>> classes = new ArrayList<>();
+    int succeeded = 0;
+    for (TranslationResult result : _results) {
+      Map<String, Object> entry = new LinkedHashMap<>();
+      entry.put("qualifiedName", result.getQualifiedName());
+      entry.put("file", result.getOutputFile().getName());
+      entry.put("success", result.isSuccess());
+      entry.put("bytes", result.isSuccess() ? result.getOutputFile().length() : 0);
+      entry.put("millis", result.getElapsedMillis());
+      entry.put("messages", result.getMessages());
+      entry.put("errors", result.getErrorMessages());
+      classes.add(entry);
+      if (result.isSuccess()) succeeded++;
+    }
+    Map<String, Object> manifest = new LinkedHashMap<>();
+    manifest.put("startedAt", _startedAt.toString());
+    manifest.put("totalMillis", _totalMillis);
+    manifest.put("classes", _results.size());
+    manifest.put("succeeded", succeeded);
+    manifest.put("results", classes);
+    Files.write(
+        _manifestFile.toPath(), (Json.write(manifest) + "\n").getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static void main(String[] args)
+      throws IOException, InterruptedException, UMLModelErrorException {
+    if (args.length < 2) {
+      System.err.println(
+          "Usage: WholeModelTranslator xmiFile outputDirectory [--threads n] [--library"
+              + " libraryDirectory] [--cache cacheDirectory]");
+      System.exit(1);
+    }
+    int threads = Runtime.getRuntime().availableProcessors();
+    String libraryPath = null;
+    File cacheDirectory = null;
+    for (int i = 2; i + 1 < args.length; i += 2) {
+      if (args[i].equals("--threads")) threads = Integer.parseInt(args[i + 1]);
+      else if (args[i].equals("--library")) libraryPath = args[i + 1];
+      else if (args[i].equals("--cache")) cacheDirectory = new File(args[i + 1]);
+      else {
+        System.err.println("Unknown option: " + args[i]);
+        System.exit(1);
+      }
+    }
+
+    // before the model is loaded
+    OBMXMI2Alloy.enableConcurrentTranslation();
+    OBMXMI2Alloy translator =
+        libraryPath == null ? new OBMXMI2Alloy() : new OBMXMI2Alloy(libraryPath);
+    translator.setXmiCacheDirectory(cacheDirectory);
+    long start = System.nanoTime();
+    if (!translator.loadXmiFile(new File(args[0]))) {
+      translator.getErrorMessages().forEach(System.err::println);
+      System.exit(1);
+    }
+    System.out.println(
+        "Loaded " + args[0] + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<TranslationResult> results;
+    try {
+      results =
+          new WholeModelTranslator(translator)
+              .translate(
+                  new File(args[1]),
+                  executor,
+                  (result, finished, total) ->
+                      System.out.println("[" + finished + "/" + total + "] " + result));
+    } finally {
+      executor.shutdown();
+    }
+    long failed = results.stream().filter(r -> !r.isSuccess()).count();
+    System.out.println(
+        (results.size() - failed)
+            + " of "
+            + results.size()
+            + " classes translated in "
+            + (System.nanoTime() - start) / 1_000_000
+            + " ms");
+    System.out.println("omgutil cache: " + translator.getOmgutilCacheStatistics());
+    if (failed > 0) System.exit(2);
+  }
+}
@@ -1,7 +1,6 @@
 package edu.gatech.gtri.obm.alloy.translator.userinterface;
 
 import edu.gatech.gtri.obm.alloy.translator.OBMXMI2Alloy;
-import edu.umd.omgutil.EMFUtil;
 import edu.umd.omgutil.UMLModelErrorException;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
@@ -23,7 +22,6 @@ import java.net.URL;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -44,6 +42,7 @@ import javax.swing.JScrollPane;
 import javax.swing.JSplitPane;
 import javax.swing.JTextField;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 import javax.swing.filechooser.FileNameExtensionFilter;
@@ -51,13 +50,7 @@ import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
-import org.eclipse.emf.common.util.TreeIterator;
-import org.eclipse.emf.common.util.URI;
-import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.resource.Resource;
-import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.uml2.uml.NamedElement;
-import org.eclipse.uml2.uml.internal.impl.ClassImpl;
 
 /**
  * The class creating the graphical user interface for selecting elements to translate.
@@ -135,34 +128,29 @@ public class UserInterface {
   /** The executor to run the translator functions in the background. */
   private ExecutorService executor = Executors.newFixedThreadPool(1);
 
-  /** A callable method to conglomerate all the class elements within the xmi file. */
+  /** The translator holding the loaded xmi file. Created when a xmi file is opened. */
+  private OBMXMI2Alloy obm;
+
+  /**
+   * A callable method to load the xmi file into the translator and conglomerate all the class
+   * elements within the xmi file. The xmi file is loaded only here and the loaded translator is
+   * used when generating files. A load failure is shown in a dialog after the caller waiting for
+   * this method returns.
+   */
   private Callable<String[]> findXmiClasses =
       () -> {
         String[] classNames = null;
+        obm = null;
         try {
-          ResourceSet rs = EMFUtil.createResourceSet();
-
-          Resource r =
-              EMFUtil.loadResourceWithDependencies(
-                  rs, URI.createFileURI(xmiFile.getAbsolutePath()), null);
-
-          List<String> resourceNames = new ArrayList<String>();
-          TreeIterator<EObject> xmiContent = r.getAllContents();
-          while (xmiContent.hasNext()) {
-            EObject current = xmiContent.next();
-            if (current.getClass().equals(ClassImpl.class)) {
-              String qn = ((ClassImpl) current).getQualifiedName();
-              if (qn != null) resourceNames.add(qn);
-            }
-          }
-          int size = resourceNames.size();
-          classNames = new String[size];
-          for (int i = 0; i < size; i++) {
-            classNames[i] = resourceNames.get(i);
-          }
-          Arrays.sort(classNames);
+          OBMXMI2Alloy translator = new OBMXMI2Alloy();
+          if (translator.loadXmiFile(xmiFile)) {
+            obm = translator;
+            classNames =
+                translator.streamClassQualifiedNames(false).sorted().toArray(String[]::new);
+          } else showLoadError(translator.getErrorMessages().toString());
         } catch (Exception e) {
           e.printStackTrace();
+          showLoadError(e.toString());
         }
         return classNames;
       };
@@ -333,28 +321,15 @@ public class UserInterface {
           public void actionPerformed(ActionEvent e) {
             String location = xmiFile.getAbsolutePath();
             int slash = location.lastIndexOf("\\");
-            String path = xmiFile.getAbsolutePath().substring(0, slash);
-            if (list.getSelectedValue() != null) {
-              File transfer = new File(path + "/Transfer.als");
-              File relation = new File(path + "/utilities/types/relation.als");
-              if (!(transfer.exists() && relation.exists())) {
-                copyResources(transfer, relation);
-              }
+            if (obm == null) {
+              JOptionPane.showMessageDialog(
+                  frmObmAlloyTranslator, "Failed to load the xmi file. Please open it again.");
+            } else if (list.getSelectedValue() != null) {
               Popup p = new Popup("Generating File");
               int i = 1;
-              OBMXMI2Alloy obm = new OBMXMI2Alloy(path);
               List<String> mainClass = list.getSelectedValuesList();
               int fileNum = mainClass.size();
               String fileList = "File(s) Created";
-              try {
-                obm.loadXmiFile(xmiFile);
-              } catch (FileNotFoundException e1) {
-                // TODO Auto-generated catch block
-                e1.printStackTrace();
-              } catch (UMLModelErrorException e1) {
-                // TODO Auto-generated catch block
-                e1.printStackTrace();
-              }
               for (String c : mainClass) {
                 p.getDialog().setTitle("Generating File " + i + "/" + fileNum);
                 p.getDialog().setVisible(true);
@@ -368,6 +343,7 @@ public class UserInterface {
                   } else {
                     if (!obm.createAlloyFile(c, alsFile))
                       JOptionPane.showMessageDialog(frmObmAlloyTranslator, obm.getErrorMessages());
+                    else copyResources(alsFile.getAbsoluteFile().getParentFile());
                   }
                 } else {
                   location = location.substring(0, slash + 1);
@@ -379,6 +355,7 @@ public class UserInterface {
                   alsFile = new File(location + name + "_" + dt + ".als");
                   if (!obm.createAlloyFile(c, alsFile))
                     JOptionPane.showMessageDialog(frmObmAlloyTranslator, obm.getErrorMessages());
+                  else copyResources(alsFile.getAbsoluteFile().getParentFile());
                 }
                 p.getDialog().setVisible(false);
                 fileList = fileList + "\n" + alsFile.getAbsolutePath();
@@ -520,12 +497,28 @@ public class UserInterface {
   }
 
   /**
-   * Add necessary .als resources to xmiFile location
+   * Show a dialog with the error of loading the xmi file. The dialog is shown by the event dispatch
+   * thread, which may be waiting for the xmi file to be loaded.
+   *
+   * @param error the error
+   */
+  private void showLoadError(String error) {
+    SwingUtilities.invokeLater(
+        () ->
+            JOptionPane.showMessageDialog(
+                frmObmAlloyTranslator, "Error loading " + xmiFile.getName() + "\n" + error));
+  }
+
+  /**
+   * Add necessary .als resources to the location of generated alloy files if not exist. The
+   * translator itself does not need them but the generated files open them.
    *
-   * @param transfer A file for the location where Transfer.als should be
-   * @param relation A file for the location where relation.als should be
+   * @param directory the directory generated alloy files are written
    */
-  private void copyResources(File transfer, File relation) {
+  private void copyResources(File directory) {
+    File transfer = new File(directory, "Transfer.als");
+    File relation = new File(directory, "utilities/types/relation.als");
+    if (transfer.exists() && relation.exists()) return;
     boolean t = false;
     boolean r = false;
     if (!transfer.exists()) {
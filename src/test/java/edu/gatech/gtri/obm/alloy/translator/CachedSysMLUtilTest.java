@@ -0,0 +1,52 @@
+package edu.gatech.gtri.obm.alloy.translator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.umd.omgutil.UMLModelErrorException;
+import edu.umd.omgutil.sysml.sysml1.SysMLUtil;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.HashSet;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.uml2.uml.Class;
+import org.eclipse.uml2.uml.NamedElement;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit Test for CachedSysMLUtil. The remembered results must be the same as omgutil's SysMLUtil
+ * for every class of the reference model.
+ */
+public class CachedSysMLUtilTest {
+
+  static final String ombmodel_directory = "src/test/resources";
+  static final File xmiFile = new File(ombmodel_directory, "OBMModel.xmi");
+
+  @Test
+  public void allAttributesMatchSysMLUtil() throws FileNotFoundException, UMLModelErrorException {
+    OBMXMI2Alloy translater = new OBMXMI2Alloy(ombmodel_directory);
+    assertTrue(translater.loadXmiFile(xmiFile), "failed to load " + xmiFile);
+
+    ResourceSet rs = null;
+    for (NamedElement ne : translater.getNamedElementsByQualifiedName().values()) {
+      rs = ne.eResource().getResourceSet();
+      break;
+    }
+    SysMLUtil sysMLUtil = new SysMLUtil(rs);
+    CachedSysMLUtil cachedSysMLUtil = new CachedSysMLUtil(new SysMLUtil(rs));
+
+    int classes = 0;
+    for (NamedElement ne : translater.getNamedElementsByQualifiedName().values()) {
+      if (!(ne instanceof Class)) continue;
+      Class aClass = (Class) ne;
+      // twice - computed and remembered
+      for (int i = 0; i < 2; i++)
+        assertEquals(
+            new HashSet<>(sysMLUtil.getAllAttributes(aClass)),
+            new HashSet<>(cachedSysMLUtil.getAllAttributes(aClass)),
+            aClass.getQualifiedName());
+      classes++;
+    }
+    assertTrue(classes > 0);
+  }
+}
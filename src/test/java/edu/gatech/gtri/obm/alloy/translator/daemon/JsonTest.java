@@ -0,0 +1,53 @@
+package edu.gatech.gtri.obm.alloy.translator.daemon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/** JUnit Test for the JSON reader and writer of the daemon protocol. */
+public class JsonTest {
+
+  @Test
+  public void readsValues() {
+    Map<String, Object> expected = new LinkedHashMap<>();
+    expected.put("id", 7L);
+    expected.put("big", 12345678901234567890.0);
+    expected.put("ratio", 0.5);
+    expected.put("exp", 1e3);
+    expected.put("negative", -2L);
+    expected.put("names", Arrays.asList("a\"b", "c\\d", "\u00e9\n"));
+    expected.put("flags", Arrays.asList(true, false, null));
+    expected.put("empty", new LinkedHashMap<>());
+    assertEquals(
+        expected,
+        Json.parse(
+            " {\"id\": 7, \"big\": 12345678901234567890, \"ratio\": 0.5, \"exp\": 1e3,"
+                + " \"negative\": -2, \"names\": [\"a\\\"b\", \"c\\\\d\", \"\\u00e9\\n\"],"
+                + " \"flags\": [true, false, null], \"empty\": {}} "));
+    assertNull(Json.parse("null"));
+  }
+
+  @Test
+  public void writesWhatIsRead() {
+    String text =
+        "{\"id\":7,\"ratio\":0.5,\"names\":[\"a\\\"b\",\"c\\\\d\",\"\\t\"],\"ok\":true,\"e\":[]}";
+    assertEquals(text, Json.write(Json.parse(text)));
+    List<Object> values = Arrays.asList(Double.NaN, 1.5f, 'c');
+    assertEquals("[null,1.5,\"c\"]", Json.write(values));
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {"", "{", "{\"a\" 1}", "{a: 1}", "[1,]", "\"abc", "tru", "1 2", "--1", "\"\\u12\""})
+  public void rejectsInvalidText(String _text) {
+    assertThrows(IllegalArgumentException.class, () -> Json.parse(_text));
+  }
+}
@@ -0,0 +1,91 @@
+package edu.gatech.gtri.obm.alloy.translator.daemon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit Test for the daemon protocol. Requests are served from a string and each response line is
+ * parsed.
+ */
+public class TranslatorDaemonTest {
+
+  // where the obm xmi file and alloy library are
+  static final String ombmodel_directory = "src/test/resources";
+
+  /**
+   * Serve the given request lines and return the responses.
+   *
+   * @param _requests (String...) - requests, a line each
+   * @return (List<Map<String, Object>>) - the responses in the order of the requests
+   */
+  @SuppressWarnings("unchecked")
+  private static List<Map<String, Object>> serve(String... _requests) throws IOException {
+    StringWriter out = new StringWriter();
+    new TranslatorDaemon(ombmodel_directory, null)
+        .serve(new BufferedReader(new StringReader(String.join("\n", _requests))), out);
+    List<Map<String, Object>> responses = new ArrayList<>();
+    for (String line : out.toString().split("\n"))
+      if (!line.isEmpty()) responses.add((Map<String, Object>) Json.parse(line));
+    return responses;
+  }
+
+  @Test
+  public void answersEachRequestAndStopsAtShutdown() throws IOException {
+    List<Map<String, Object>> responses =
+        serve(
+            "{\"id\": 1, \"command\": \"ping\"}",
+            "not json",
+            "[1, 2]",
+            "{\"id\": \"2\", \"command\": \"unknown\"}",
+            "",
+            "{\"id\": 3, \"command\": \"load\", \"model\": \"no such file.xmi\"}",
+            "{\"id\": 4, \"qualifiedNames\": []}",
+            "{\"id\": 5, \"command\": \"shutdown\"}",
+            "{\"id\": 6, \"command\": \"ping\"}");
+
+    assertEquals(7, responses.size());
+    assertEquals(1L, responses.get(0).get("id"));
+    assertEquals(true, responses.get(0).get("success"));
+    for (int i = 1; i <= 5; i++) {
+      assertEquals(false, responses.get(i).get("success"), responses.get(i).toString());
+      assertTrue(responses.get(i).get("error") instanceof String);
+    }
+    assertEquals("2", responses.get(3).get("id"));
+    assertEquals(5L, responses.get(6).get("id"));
+    assertEquals(true, responses.get(6).get("success"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void translatesInMemoryWithResidentModel() throws IOException {
+    String request =
+        "{\"id\": %d, \"model\": \"src/test/resources/OBMModel.xmi\", \"qualifiedNames\":"
+            + " [\"Model::4.1 Basic Examples::4.1.2 Loops::Loop\"]}";
+    List<Map<String, Object>> responses =
+        serve(String.format(request, 1), String.format(request, 2));
+
+    assertEquals(2, responses.size());
+    for (Map<String, Object> response : responses) {
+      assertEquals(true, response.get("success"), response.toString());
+      List<Object> results = (List<Object>) response.get("results");
+      assertEquals(1, results.size());
+      Map<String, Object> result = (Map<String, Object>) results.get(0);
+      assertEquals(true, result.get("success"));
+      assertTrue(((String) result.get("text")).contains("sig Loop"));
+    }
+    // loaded by the first request only
+    assertEquals(true, responses.get(0).get("loaded"));
+    assertEquals(false, responses.get(1).get("loaded"));
+    assertTrue(
+        (Long) responses.get(1).get("loadMillis") <= (Long) responses.get(0).get("loadMillis"));
+  }
+}
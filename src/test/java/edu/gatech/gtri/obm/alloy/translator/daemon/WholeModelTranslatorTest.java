@@ -0,0 +1,143 @@
+package edu.gatech.gtri.obm.alloy.translator.daemon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.gatech.gtri.obm.alloy.translator.OBMXMI2Alloy;
+import edu.gatech.gtri.obm.alloy.translator.TranslationResult;
+import edu.umd.omgutil.UMLModelErrorException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit Test for translating the whole model (WholeModelTranslator). The discovered classes are
+ * compared with the classes OBMXMI2AlloyTest translates, and the alloy files and the manifest
+ * written for the discovered classes are checked against the results.
+ */
+public class WholeModelTranslatorTest {
+
+  // where the obm xmi file and alloy library are
+  static final String ombmodel_directory = "src/test/resources";
+  static final File xmiFile = new File(ombmodel_directory, "OBMModel.xmi");
+
+  // the classes translated by OBMXMI2AlloyTest
+  static final List<String> referenceClasses =
+      Arrays.asList(
+          "Model::4.1 Basic Examples::4.1.1 Time Orderings::AllControl",
+          "Model::4.1 Basic Examples::4.1.1 Time Orderings::Decision",
+          "Model::4.1 Basic Examples::4.1.1 Time Orderings::Fork",
+          "Model::4.1 Basic Examples::4.1.1 Time Orderings::Join",
+          "Model::4.1 Basic Examples::4.1.1 Time Orderings::Merge",
+          "Model::4.1 Basic Examples::4.1.1 Time Orderings::SimpleSequence",
+          "Model::4.1 Basic Examples::4.1.2 Loops::Loop",
+          "Model::4.1 Basic Examples::4.1.3 Behaviors with Steps::Composed",
+          "Model::4.1 Basic Examples::4.1.4 Transfers and Parameters::ParameterBehavior",
+          "Model::4.1 Basic Examples::4.1.4 Transfers and Parameters::TransferProduct",
+          "Model::4.1 Basic Examples::4.1.5 Steps with Multiple Executions::MultipleControlFlow",
+          "Model::4.1 Basic Examples::4.1.5 Steps with Multiple Executions::MultipleObjectFlow",
+          "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableAsymmetry",
+          "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableComposition1",
+          "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableComposition2",
+          "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableMultiplicity",
+          "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableTransitivity",
+          "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::BuffetService",
+          "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::FastFoodService",
+          "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::ChurchSupper",
+          "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::RestaurantService",
+          "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::SingleFoodService",
+          "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::UnsatisfiableFoodService",
+          "Model::4.2 Advanced Examples::4.2.2 Food Service Object Flow::OFControlLoopFoodService",
+          "Model::4.2 Advanced Examples::4.2.2 Food Service Object Flow::OFSingleFoodService",
+          "Model::4.2 Advanced Examples::4.2.2 Food Service Object Flow::OFParallelFoodService");
+
+  static WholeModelTranslator wholeModelTranslator;
+
+  @BeforeAll
+  static void initializeWholeModelTranslator()
+      throws FileNotFoundException, UMLModelErrorException {
+    OBMXMI2Alloy translator = new OBMXMI2Alloy(ombmodel_directory);
+    assertTrue(translator.loadXmiFile(xmiFile), translator.getErrorMessages().toString());
+    wholeModelTranslator = new WholeModelTranslator(translator);
+  }
+
+  @Test
+  public void discoversReferenceClasses() {
+    List<String> discovered = wholeModelTranslator.discoverClasses();
+    List<String> missing = new ArrayList<>(referenceClasses);
+    missing.removeAll(discovered);
+    assertTrue(missing.isEmpty(), "not discovered: " + missing);
+    assertEquals(new HashSet<>(discovered).size(), discovered.size(), "discovered twice");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void writesAlloyFilesAndManifest(@TempDir Path _outputDirectory)
+      throws IOException, InterruptedException {
+    File outputDirectory = _outputDirectory.toFile();
+    List<Integer> progress = Collections.synchronizedList(new ArrayList<>());
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    List<TranslationResult> results;
+    try {
+      results =
+          wholeModelTranslator.translate(
+              outputDirectory, executor, (result, finished, total) -> progress.add(finished));
+    } finally {
+      executor.shutdown();
+    }
+    List<String> discovered = wholeModelTranslator.discoverClasses();
+    assertEquals(discovered.size(), results.size());
+    assertEquals(discovered.size(), progress.size());
+
+    Map<String, Object> manifest =
+        (Map<String, Object>)
+            Json.parse(
+                new String(
+                    Files.readAllBytes(
+                        new File(outputDirectory, WholeModelTranslator.MANIFEST_FILE_NAME)
+                            .toPath()),
+                    StandardCharsets.UTF_8));
+    List<Object> entries = (List<Object>) manifest.get("results");
+    assertEquals((long) discovered.size(), manifest.get("classes"));
+    assertEquals(discovered.size(), entries.size());
+
+    long succeeded = 0;
+    Set<String> fileNames = new HashSet<>();
+    for (int i = 0; i < entries.size(); i++) {
+      Map<String, Object> entry = (Map<String, Object>) entries.get(i);
+      TranslationResult result = results.get(i);
+      String qualifiedName = discovered.get(i);
+      assertEquals(qualifiedName, result.getQualifiedName());
+      assertEquals(qualifiedName, entry.get("qualifiedName"));
+      assertEquals(result.getOutputFile().getName(), entry.get("file"));
+      assertTrue(fileNames.add((String) entry.get("file")), "the same file for two classes");
+      assertEquals(result.isSuccess(), entry.get("success"), qualifiedName);
+      File file = new File(outputDirectory, (String) entry.get("file"));
+      if (result.isSuccess()) {
+        succeeded++;
+        assertTrue(file.isFile(), file + " is not written");
+        assertEquals(file.length(), entry.get("bytes"), qualifiedName);
+      } else assertEquals(0L, entry.get("bytes"), qualifiedName);
+      if (referenceClasses.contains(qualifiedName))
+        assertTrue(result.isSuccess(), qualifiedName + " " + result.getErrorMessages());
+    }
+    assertEquals(succeeded, manifest.get("succeeded"));
+    // one alloy file for each class translated
+    assertEquals(succeeded, outputDirectory.listFiles((dir, name) -> name.endsWith(".als")).length);
+  }
+}
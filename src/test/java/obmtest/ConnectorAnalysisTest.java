@@ -0,0 +1,50 @@
+package obmtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.gatech.gtri.obm.alloy.translator.OBMXMI2Alloy;
+import edu.umd.omgutil.UMLModelErrorException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit Test for analyzing connectors of classes in parallel (setConnectorAnalysisExecutor). The
+ * reference classes are translated by a translator analyzing connectors one class at a time and by
+ * a translator analyzing them on a fixed thread pool, and the alloy modules must be the same. The
+ * surefire configuration in pom.xml makes UML2 cache derived features for each thread, so the
+ * executor is used.
+ */
+public class ConnectorAnalysisTest {
+
+  // where the obm xmi file and alloy library are
+  static final String ombmodel_directory = "src/test/resources";
+  static final File xmiFile = new File(ombmodel_directory, "OBMModel.xmi");
+
+  @Test
+  public void parallelAnalysisIsSameAsSequentialAnalysis()
+      throws FileNotFoundException, UMLModelErrorException {
+    OBMXMI2Alloy sequential = new OBMXMI2Alloy(ombmodel_directory);
+    assertTrue(sequential.loadXmiFile(xmiFile), sequential.getErrorMessages().toString());
+    OBMXMI2Alloy parallel = new OBMXMI2Alloy(ombmodel_directory);
+    assertTrue(parallel.loadXmiFile(xmiFile), parallel.getErrorMessages().toString());
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      parallel.setConnectorAnalysisExecutor(executor);
+      for (String qualifiedName : CreateAlloyFilesTest.qualifiedNames) {
+        String expected = sequential.translateToString(qualifiedName);
+        assertNotNull(expected, qualifiedName + " " + sequential.getErrorMessages());
+        // twice - the UML2 caches of the pool threads are used again by the second translation
+        for (int i = 0; i < 2; i++)
+          assertEquals(expected, parallel.translateToString(qualifiedName), qualifiedName);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package obmtest;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.gatech.gtri.obm.alloy.translator.OBMXMI2Alloy;
+import edu.gatech.gtri.obm.alloy.translator.TranslationResult;
+import edu.umd.omgutil.UMLModelErrorException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit Test for translating classes concurrently (OBMXMI2Alloy.createAlloyFiles).
+ *
+ * <p>The reference classes are translated one at a time by createAlloyFile and concurrently by
+ * createAlloyFiles on a fixed thread pool, each by a translator loading the xmi file, and the
+ * created files are compared byte by byte. The times taken by both are printed. The surefire
+ * configuration in pom.xml makes UML2 cache derived features for each thread, so the classes are
+ * translated concurrently.
+ */
+public class CreateAlloyFilesTest {
+
+  // where the obm xmi file and alloy library are
+  static final String ombmodel_directory = "src/test/resources";
+  static final File xmiFile = new File(ombmodel_directory, "OBMModel.xmi");
+
+  static final List<String> qualifiedNames =
+      Arrays.asList(
+          "Model::4.1 Basic Examples::4.1.1 Time Orderings::AllControl",
+          "Model::4.1 Basic Examples::4.1.1 Time Orderings::Decision",
+          "Model::4.1 Basic Examples::4.1.1 Time Orderings::Fork",
+          "Model::4.1 Basic Examples::4.1.1 Time Orderings::Join",
+          "Model::4.1 Basic Examples::4.1.1 Time Orderings::Merge",
+          "Model::4.1 Basic Examples::4.1.1 Time Orderings::SimpleSequence",
+          "Model::4.1 Basic Examples::4.1.2 Loops::Loop",
+          "Model::4.1 Basic Examples::4.1.3 Behaviors with Steps::Composed",
+          "Model::4.1 Basic Examples::4.1.4 Transfers and Parameters::ParameterBehavior",
+          "Model::4.1 Basic Examples::4.1.4 Transfers and Parameters::TransferProduct",
+          "Model::4.1 Basic Examples::4.1.5 Steps with Multiple Executions::MultipleControlFlow",
+          "Model::4.1 Basic Examples::4.1.5 Steps with Multiple Executions::MultipleObjectFlow",
+          "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableAsymmetry",
+          "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableComposition1",
+          "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableComposition2",
+          "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableMultiplicity",
+          "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableTransitivity",
+          "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::BuffetService",
+          "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::FastFoodService",
+          "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::ChurchSupper",
+          "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::RestaurantService",
+          "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::SingleFoodService",
+          "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::UnsatisfiableFoodService",
+          "Model::4.2 Advanced Examples::4.2.2 Food Service Object Flow::OFControlLoopFoodService",
+          "Model::4.2 Advanced Examples::4.2.2 Food Service Object Flow::OFSingleFoodService",
+          "Model::4.2 Advanced Examples::4.2.2 Food Service Object Flow::OFParallelFoodService");
+
+  @Test
+  public void concurrentFilesAreSameAsSequentialFiles(@TempDir Path _outputDirectory)
+      throws IOException, InterruptedException, UMLModelErrorException {
+    OBMXMI2Alloy translator = loadedTranslator();
+    File sequentialDirectory = _outputDirectory.resolve("sequential").toFile();
+    assertTrue(sequentialDirectory.mkdirs());
+    long start = System.nanoTime();
+    for (String qualifiedName : qualifiedNames) {
+      File outputFile =
+          new File(
+              sequentialDirectory,
+              qualifiedName.substring(qualifiedName.lastIndexOf(':') + 1) + ".als");
+      assertTrue(
+          translator.createAlloyFile(qualifiedName, outputFile),
+          translator.getErrorMessages().toString());
+    }
+    long sequentialMillis = (System.nanoTime() - start) / 1_000_000;
+
+    File concurrentDirectory = _outputDirectory.resolve("concurrent").toFile();
+    assertTrue(concurrentDirectory.mkdirs());
+    translator = loadedTranslator();
+    int threads = Runtime.getRuntime().availableProcessors();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<TranslationResult> results;
+    start = System.nanoTime();
+    try {
+      results = translator.createAlloyFiles(qualifiedNames, concurrentDirectory, executor, null);
+    } finally {
+      executor.shutdown();
+    }
+    long concurrentMillis = (System.nanoTime() - start) / 1_000_000;
+
+    assertEquals(qualifiedNames.size(), results.size());
+    for (TranslationResult result : results) {
+      assertTrue(result.isSuccess(), result.getErrorMessages().toString());
+      File sequentialFile = new File(sequentialDirectory, result.getOutputFile().getName());
+      assertArrayEquals(
+          Files.readAllBytes(sequentialFile.toPath()),
+          Files.readAllBytes(result.getOutputFile().toPath()),
+          result.getQualifiedName());
+    }
+    System.out.println(
+        qualifiedNames.size()
+            + " classes translated one at a time in "
+            + sequentialMillis
+            + " ms, concurrently with "
+            + threads
+            + " threads in "
+            + concurrentMillis
+            + " ms");
+  }
+
+  private static OBMXMI2Alloy loadedTranslator() throws IOException, UMLModelErrorException {
+    OBMXMI2Alloy translator = new OBMXMI2Alloy(ombmodel_directory);
+    assertTrue(translator.loadXmiFile(xmiFile), translator.getErrorMessages().toString());
+    return translator;
+  }
+}
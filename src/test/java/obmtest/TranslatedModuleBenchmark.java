@@ -0,0 +1,73 @@
+package obmtest;
+
+import edu.gatech.gtri.obm.alloy.translator.OBMXMI2Alloy;
+import edu.gatech.gtri.obm.alloy.translator.SolveResult;
+import edu.gatech.gtri.obm.alloy.translator.TranslatedModule;
+import edu.mit.csail.sdg.ast.Command;
+import edu.mit.csail.sdg.translator.A4Options;
+import edu.umd.omgutil.UMLModelErrorException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A benchmark of the cost of parsing the alloy library for each module analyzed in memory.
+ * translateToString translates a class using the shared library, createTranslatedModule translates
+ * it using a library parsed for the module (see AlloyLibrary.loadForAnalysis), so the difference is
+ * the time of the parse. The times of the translation to CNF and of the SAT solver for the standard
+ * run command are printed for comparison.
+ *
+ * <p>Usage: TranslatedModuleBenchmark [xmiFile] [qualifiedName] [iterations]
+ */
+public class TranslatedModuleBenchmark {
+
+  public static void main(String[] args) throws IOException, UMLModelErrorException {
+
+    File xmiFile = new File(args.length > 0 ? args[0] : "src/test/resources/OBM.xmi");
+    String qualifiedName =
+        args.length > 1
+            ? args[1]
+            : "Model::4.1 Basic Examples::4.1.1 Time Orderings::SimpleSequence";
+    int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+    OBMXMI2Alloy translator = new OBMXMI2Alloy("src/test/resources");
+    if (!translator.loadXmiFile(xmiFile))
+      throw new IOException(translator.getErrorMessages().toString());
+    A4Options options = new A4Options();
+    options.solver = A4Options.SatSolver.SAT4J;
+
+    // warm up all paths once
+    translator.translateToString(qualifiedName);
+    solve(translator.createTranslatedModule(qualifiedName), options);
+
+    long translateNanos = 0, moduleNanos = 0, cnfMillis = 0, solveMillis = 0;
+    for (int i = 0; i < iterations; i++) {
+      long start = System.nanoTime();
+      if (translator.translateToString(qualifiedName) == null)
+        throw new IllegalStateException(translator.getErrorMessages().toString());
+      translateNanos += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      TranslatedModule module = translator.createTranslatedModule(qualifiedName);
+      moduleNanos += System.nanoTime() - start;
+
+      SolveResult result = solve(module, options);
+      cnfMillis += result.getTranslationMillis();
+      solveMillis += result.getSolveMillis();
+    }
+
+    System.out.println(qualifiedName + " (" + iterations + " iterations)");
+    System.out.println("translateToString:      " + translateNanos / iterations / 1000 + " us");
+    System.out.println("createTranslatedModule: " + moduleNanos / iterations / 1000 + " us");
+    System.out.println(
+        "library parse:          " + (moduleNanos - translateNanos) / iterations / 1000 + " us");
+    System.out.println("translation to CNF:     " + cnfMillis / iterations + " ms");
+    System.out.println("SAT solver:             " + solveMillis / iterations + " ms");
+  }
+
+  /** Execute the standard run command of the given module */
+  private static SolveResult solve(TranslatedModule _module, A4Options _options) {
+    Map.Entry<String, Command> command = _module.createRunCommands(6).entrySet().iterator().next();
+    return _module.solve(command.getKey(), command.getValue(), _options);
+  }
+}
@@ -0,0 +1,321 @@
+package obmtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.gatech.gtri.obm.alloy.translator.AlloyUtils;
+import edu.gatech.gtri.obm.alloy.translator.OBMXMI2Alloy;
+import edu.gatech.gtri.obm.alloy.translator.SolveReport;
+import edu.gatech.gtri.obm.alloy.translator.SolveResult;
+import edu.gatech.gtri.obm.alloy.translator.TranslatedModule;
+import edu.mit.csail.sdg.alloy4.A4Reporter;
+import edu.mit.csail.sdg.ast.Command;
+import edu.mit.csail.sdg.ast.Decl;
+import edu.mit.csail.sdg.ast.Expr;
+import edu.mit.csail.sdg.ast.Sig;
+import edu.mit.csail.sdg.ast.Sig.Field;
+import edu.mit.csail.sdg.parser.CompModule;
+import edu.mit.csail.sdg.translator.A4Options;
+import edu.mit.csail.sdg.translator.A4Solution;
+import edu.mit.csail.sdg.translator.TranslateAlloyToKodkod;
+import edu.umd.omgutil.UMLModelErrorException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * JUnit Test for analyzing translated modules in memory (TranslatedModule).
+ *
+ * <p>Each class is translated in memory and written to a file. The same command is executed for the
+ * translated module and for the module parsed from the file, and the results (SAT/UNSAT) are
+ * compared. The standard run command (see TranslatedModule.createRunCommands) is executed for
+ * reference models and compared with the run command of the expected alloy files. The commands of
+ * the expected SimpleSequence alloy file are executed concurrently and compared with executing them
+ * one at a time, and the standard run command is raced by a portfolio of solver configurations and
+ * executed with growing scopes.
+ */
+public class TranslatedModuleTest {
+
+  // where the obm xmi file and alloy library are, and where the translated files will be written
+  static final String ombmodel_directory = "src/test/resources";
+  static final File xmiFile = new File(ombmodel_directory, "OBMModel.xmi");
+  static final int scope = 6;
+
+  static OBMXMI2Alloy translater;
+
+  @BeforeAll
+  static void initializeOBMXMI2Alloy() throws FileNotFoundException, UMLModelErrorException {
+    translater = new OBMXMI2Alloy(ombmodel_directory);
+    assertTrue(translater.loadXmiFile(xmiFile), "failed to load " + xmiFile);
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "Model::4.1 Basic Examples::4.1.1 Time Orderings::AllControl",
+        "Model::4.1 Basic Examples::4.1.1 Time Orderings::Decision",
+        "Model::4.1 Basic Examples::4.1.1 Time Orderings::Fork",
+        "Model::4.1 Basic Examples::4.1.1 Time Orderings::Join",
+        "Model::4.1 Basic Examples::4.1.1 Time Orderings::Merge",
+        "Model::4.1 Basic Examples::4.1.1 Time Orderings::SimpleSequence",
+        "Model::4.1 Basic Examples::4.1.2 Loops::Loop",
+        "Model::4.1 Basic Examples::4.1.3 Behaviors with Steps::Composed",
+        "Model::4.1 Basic Examples::4.1.4 Transfers and Parameters::ParameterBehavior",
+        "Model::4.1 Basic Examples::4.1.4 Transfers and Parameters::TransferProduct",
+        "Model::4.1 Basic Examples::4.1.5 Steps with Multiple Executions::MultipleControlFlow",
+        "Model::4.1 Basic Examples::4.1.5 Steps with Multiple Executions::MultipleObjectFlow",
+        "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableAsymmetry",
+        "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableComposition1",
+        "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableComposition2",
+        "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableMultiplicity",
+        "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableTransitivity",
+        "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::BuffetService",
+        "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::FastFoodService",
+        "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::ChurchSupper",
+        "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::RestaurantService",
+        "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::SingleFoodService",
+        "Model::4.2 Advanced Examples::4.2.1 Food Service Control Flow::UnsatisfiableFoodService",
+        "Model::4.2 Advanced Examples::4.2.2 Food Service Object Flow::OFControlLoopFoodService",
+        "Model::4.2 Advanced Examples::4.2.2 Food Service Object Flow::OFSingleFoodService",
+        "Model::4.2 Advanced Examples::4.2.2 Food Service Object Flow::OFParallelFoodService",
+      })
+  /**
+   * Compare the result of "run {some [Main]} for 6" executed for the module translated in memory
+   * and for the module parsed from the translated file.
+   *
+   * @param _classQualifiedName(String) - class's qualifedName (i.e., Model::4.1 Basic
+   *     Examples::4.1.1 Time Orderings::Fork)
+   */
+  public void inMemoryAnalysisMatchesParsedFile(String _classQualifiedName) {
+    TranslatedModule module = translater.createTranslatedModule(_classQualifiedName);
+    assertNotNull(module, translater.getErrorMessages().toString());
+    A4Options options = new A4Options();
+    options.solver = A4Options.SatSolver.SAT4J;
+
+    SolveResult inMemory =
+        module.solve(
+            "inMemory", new Command(false, scope, -1, -1, module.getMainSig().some()), options);
+    assertNull(inMemory.getError());
+
+    File alsFile = new File(ombmodel_directory, module.getModuleName() + "_Parsed.als");
+    assertTrue(
+        translater.createAlloyFile(_classQualifiedName, alsFile),
+        translater.getErrorMessages().toString());
+    CompModule parsed = AlloyUtils.importAlloyModule(alsFile);
+    Sig parsedMainSig = null;
+    for (Sig sig : parsed.getAllReachableUserDefinedSigs())
+      if (sig.label.equals(module.getMainSig().label)) parsedMainSig = sig;
+    assertNotNull(parsedMainSig);
+    Command command = new Command(false, scope, -1, -1, parsedMainSig.some());
+    A4Solution fromFile =
+        TranslateAlloyToKodkod.execute_command(
+            A4Reporter.NOP,
+            parsed.getAllReachableSigs(),
+            command.change(command.formula.and(parsed.getAllReachableFacts())),
+            options);
+
+    assertEquals(fromFile.satisfiable(), inMemory.isSatisfiable(), _classQualifiedName);
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "4.1.1 Time Orderings - SimpleSequence.als, Model::4.1 Basic Examples::4.1.1 Time"
+        + " Orderings::SimpleSequence, SimpleSequence, 6, true",
+    "4.1.6 Unsatisfiable - UnsatisfiableTransitivity.als, Model::4.1 Basic Examples::4.1.6"
+        + " Unsatisfiable::UnsatisfiableTransitivity, showUnsatisfiableTransitivity, 12, false",
+    "4.1.6 Unsatisfiable - UnsatisfiableComposition2.als, Model::4.1 Basic Examples::4.1.6"
+        + " Unsatisfiable::UnsatisfiableComposition2, showUnsatisfiableComposition2, 12, false",
+  })
+  /**
+   * Solve the standard run command with instancesDuringExample derived by the translator and
+   * compare the result with the expected result and the result of the run command of the expected
+   * alloy file (using instancesDuringExample written by hand).
+   *
+   * @param _expectedAlloyFileName(String) - the expected alloy file name
+   * @param _classQualifiedName(String) - class's qualifedName
+   * @param _commandLabel(String) - the label of the run command in the expected alloy file
+   * @param _scope(int) - the overall scope of the run command in the expected alloy file
+   * @param _satisfiable(boolean) - true if expected to be satisfiable
+   */
+  public void solveMatchesReferenceRunCommand(
+      String _expectedAlloyFileName,
+      String _classQualifiedName,
+      String _commandLabel,
+      int _scope,
+      boolean _satisfiable) {
+    List<SolveResult> results = translater.solve(_classQualifiedName, _scope);
+    assertNotNull(results, translater.getErrorMessages().toString());
+    assertEquals(1, results.size());
+    assertNull(results.get(0).getError());
+    assertEquals(_satisfiable, results.get(0).isSatisfiable(), results.get(0).toString());
+
+    CompModule expected =
+        AlloyUtils.importAlloyModule(new File(ombmodel_directory, _expectedAlloyFileName));
+    Command command = null;
+    for (Command c : expected.getAllCommands()) if (c.label.equals(_commandLabel)) command = c;
+    assertNotNull(command, _commandLabel + " not found");
+    A4Options options = new A4Options();
+    options.solver = A4Options.SatSolver.SAT4J;
+    A4Solution reference =
+        TranslateAlloyToKodkod.execute_command(
+            A4Reporter.NOP, expected.getAllReachableSigs(), command, options);
+    assertEquals(reference.satisfiable(), results.get(0).isSatisfiable(), _commandLabel);
+  }
+
+  @Test
+  /**
+   * Execute the disjointness checks and the run command of the expected SimpleSequence alloy file
+   * concurrently by solveAll and compare the results with executing the commands one at a time.
+   */
+  public void solveAllMatchesOneAtATime() throws InterruptedException {
+    TranslatedModule module =
+        translater.createTranslatedModule(
+            "Model::4.1 Basic Examples::4.1.1 Time Orderings::SimpleSequence");
+    assertNotNull(module, translater.getErrorMessages().toString());
+    Map<String, Command> commands = createSimpleSequenceCommands(module);
+    A4Options options = new A4Options();
+    options.solver = A4Options.SatSolver.SAT4J;
+
+    List<SolveResult> oneAtATime = new ArrayList<>();
+    for (Map.Entry<String, Command> command : commands.entrySet())
+      oneAtATime.add(module.solve(command.getKey(), command.getValue(), options));
+    // the disjointness checks find no instance
+    assertEquals(false, oneAtATime.get(0).isSatisfiable(), oneAtATime.get(0).toString());
+    assertEquals(false, oneAtATime.get(1).isSatisfiable(), oneAtATime.get(1).toString());
+    assertEquals(true, oneAtATime.get(2).isSatisfiable(), oneAtATime.get(2).toString());
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    SolveReport report;
+    try {
+      report = module.solveAll(commands, options, executor);
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(module.getModuleName(), report.getModuleName());
+    assertEquals(oneAtATime.size(), report.getResults().size());
+    for (int i = 0; i < oneAtATime.size(); i++) {
+      SolveResult result = report.getResults().get(i);
+      assertNull(result.getError(), result.toString());
+      assertEquals(oneAtATime.get(i).getCommandLabel(), result.getCommandLabel());
+      assertEquals(oneAtATime.get(i).isSatisfiable(), result.isSatisfiable(), result.toString());
+    }
+    assertEquals(1, report.getSatisfiableCount());
+    assertEquals(0, report.getFailedCount());
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "Model::4.1 Basic Examples::4.1.1 Time Orderings::SimpleSequence, true",
+    "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableComposition2, false",
+  })
+  /**
+   * Race the standard run command with the default portfolio and compare the answer with solving
+   * the command with SAT4J.
+   *
+   * @param _classQualifiedName(String) - class's qualifedName
+   * @param _satisfiable(boolean) - true if expected to be satisfiable
+   */
+  public void raceMatchesSolve(String _classQualifiedName, boolean _satisfiable)
+      throws InterruptedException {
+    TranslatedModule module = translater.createTranslatedModule(_classQualifiedName);
+    assertNotNull(module, translater.getErrorMessages().toString());
+    Map.Entry<String, Command> command =
+        module.createRunCommands(scope).entrySet().iterator().next();
+    A4Options options = new A4Options();
+    options.solver = A4Options.SatSolver.SAT4J;
+    SolveResult solved = module.solve(command.getKey(), command.getValue(), options);
+    assertNull(solved.getError(), solved.toString());
+    assertEquals(_satisfiable, solved.isSatisfiable(), solved.toString());
+
+    Map<String, A4Options> portfolio = TranslatedModule.createSolverPortfolio();
+    SolveResult raced = module.race(command.getKey(), command.getValue(), portfolio);
+    assertNull(raced.getError(), raced.toString());
+    assertEquals(solved.isSatisfiable(), raced.isSatisfiable(), raced.toString());
+    assertTrue(portfolio.containsKey(raced.getConfiguration()), raced.toString());
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "Model::4.1 Basic Examples::4.1.1 Time Orderings::SimpleSequence, 1, 12, 1, true",
+    "Model::4.1 Basic Examples::4.1.6 Unsatisfiable::UnsatisfiableComposition2, 1, 6, 2, false",
+  })
+  /**
+   * Execute the standard run command with growing scopes. A satisfiable model stops at the first
+   * satisfiable scope, every earlier scope being unsatisfiable, and an unsatisfiable model is
+   * executed up to the ceiling.
+   *
+   * @param _classQualifiedName(String) - class's qualifedName
+   * @param _minScope(int) - the overall scope of the first step
+   * @param _maxScope(int) - the ceiling of the overall scope
+   * @param _step(int) - the scope added at each step
+   * @param _satisfiable(boolean) - true if expected to be satisfiable
+   */
+  public void escalateStopsAtFirstSatisfiableScope(
+      String _classQualifiedName, int _minScope, int _maxScope, int _step, boolean _satisfiable) {
+    List<SolveReport> reports =
+        translater.solveWithScopeEscalation(_classQualifiedName, _minScope, _maxScope, _step);
+    assertNotNull(reports, translater.getErrorMessages().toString());
+    assertEquals(1, reports.size());
+    List<SolveResult> results = reports.get(0).getResults();
+    assertEquals(0, reports.get(0).getFailedCount(), reports.get(0).toString());
+    assertTrue(results.size() > 0);
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(_minScope + i * _step, results.get(i).getScope());
+      if (i < results.size() - 1)
+        assertEquals(false, results.get(i).isSatisfiable(), results.get(i).toString());
+    }
+    SolveResult last = results.get(results.size() - 1);
+    assertEquals(_satisfiable, last.isSatisfiable(), last.toString());
+    // an unsatisfiable model is executed up to the ceiling
+    if (!_satisfiable)
+      assertTrue(last.getScope() <= _maxScope && last.getScope() + _step > _maxScope);
+  }
+
+  /**
+   * Create the commands of the expected SimpleSequence alloy file for the translated module:
+   * disjointnessCheck1, disjointessCheck2 and the standard run command.
+   *
+   * @param _module(TranslatedModule) - the module translated from SimpleSequence
+   * @return (Map<String, Command>) - the commands by their labels in the order of the file
+   */
+  static Map<String, Command> createSimpleSequenceCommands(TranslatedModule _module) {
+    Sig simpleSequence = _module.getMainSig();
+    Sig atomicBehavior = null;
+    for (Sig sig : _module.getAllReachableSigs())
+      if (AlloyUtils.removeSlash(sig.label).equals("AtomicBehavior")) atomicBehavior = sig;
+    assertNotNull(atomicBehavior);
+    Field p1 = null, p2 = null;
+    for (Field field : simpleSequence.getFields()) {
+      if (field.label.equals("p1")) p1 = field;
+      else if (field.label.equals("p2")) p2 = field;
+    }
+    assertNotNull(p1);
+    assertNotNull(p2);
+
+    Map<String, Command> commands = new LinkedHashMap<>();
+    // run disjointnessCheck1{some x: AtomicBehavior | x in SimpleSequence.p1 and x in
+    // SimpleSequence.p2} for 6
+    Decl x = atomicBehavior.oneOf("x");
+    Expr check1 =
+        x.get().in(simpleSequence.join(p1)).and(x.get().in(simpleSequence.join(p2))).forSome(x);
+    commands.put("disjointnessCheck1", new Command(false, scope, -1, -1, check1));
+    // run disjointessCheck2{some x: SimpleSequence | x.p1 = x.p2} for 6
+    Decl y = simpleSequence.oneOf("x");
+    Expr check2 = y.get().join(p1).equal(y.get().join(p2)).forSome(y);
+    commands.put("disjointessCheck2", new Command(false, scope, -1, -1, check2));
+    commands.putAll(_module.createRunCommands(scope));
+    return commands;
+  }
+}
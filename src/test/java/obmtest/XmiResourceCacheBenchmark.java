@@ -0,0 +1,62 @@
+package obmtest;
+
+import edu.gatech.gtri.obm.alloy.translator.OBMXMI2Alloy;
+import edu.umd.omgutil.UMLModelErrorException;
+import edu.umd.omgutil.sysml.sysml1.SysMLAdapter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * A benchmark comparing OBMXMI2Alloy.loadXmiFile without the xmi cache (cold) and with an entry in
+ * the cache (warm). omgutil's SysMLAdapter parses the xmi file in both, so the time of creating a
+ * SysMLAdapter alone is printed as the part of a load the cache does not save.
+ *
+ * <p>Usage: XmiResourceCacheBenchmark [xmiFile] [iterations]
+ */
+public class XmiResourceCacheBenchmark {
+
+  public static void main(String[] args) throws IOException, UMLModelErrorException {
+
+    File xmiFile = new File(args.length > 0 ? args[0] : "src/test/resources/OBM.xmi");
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+    String alloyLibPath = "src/test/resources";
+    File cacheDirectory = Files.createTempDirectory("obm-xmi-cache").toFile();
+
+    // warm up all paths once. The warm up also saves the cache entry.
+    new OBMXMI2Alloy(alloyLibPath).loadXmiFile(xmiFile);
+    load(alloyLibPath, cacheDirectory, xmiFile);
+    new SysMLAdapter(xmiFile, null);
+
+    long coldMillis = 0, warmMillis = 0, adapterMillis = 0;
+    for (int i = 0; i < iterations; i++) {
+      long start = System.nanoTime();
+      new OBMXMI2Alloy(alloyLibPath).loadXmiFile(xmiFile);
+      coldMillis += (System.nanoTime() - start) / 1_000_000;
+
+      start = System.nanoTime();
+      load(alloyLibPath, cacheDirectory, xmiFile);
+      warmMillis += (System.nanoTime() - start) / 1_000_000;
+
+      start = System.nanoTime();
+      new SysMLAdapter(xmiFile, null);
+      adapterMillis += (System.nanoTime() - start) / 1_000_000;
+    }
+    for (File entry : cacheDirectory.listFiles()) entry.delete();
+    cacheDirectory.delete();
+
+    System.out.println(xmiFile.getAbsolutePath() + " (" + iterations + " iterations)");
+    System.out.println("cold load:            " + coldMillis / iterations + " ms");
+    System.out.println("warm load:            " + warmMillis / iterations + " ms");
+    System.out.println("omgutil SysMLAdapter: " + adapterMillis / iterations + " ms");
+  }
+
+  /** Load the xmi file by a translator using the cache in the given directory */
+  private static void load(String _alloyLibPath, File _cacheDirectory, File _xmiFile)
+      throws IOException, UMLModelErrorException {
+    OBMXMI2Alloy translator = new OBMXMI2Alloy(_alloyLibPath);
+    translator.setXmiCacheDirectory(_cacheDirectory);
+    if (!translator.loadXmiFile(_xmiFile))
+      throw new IOException(translator.getErrorMessages().toString());
+  }
+}
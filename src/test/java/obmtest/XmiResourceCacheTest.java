@@ -0,0 +1,55 @@
+package obmtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.gatech.gtri.obm.alloy.translator.OBMXMI2Alloy;
+import edu.umd.omgutil.UMLModelErrorException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit Test for loading xmi files from the on-disk cache (OBMXMI2Alloy.setXmiCacheDirectory).
+ *
+ * <p>The xmi file is loaded with an empty cache (cold, parsed and saved in the cache) and loaded
+ * again from the cache (warm) by another translator. Each class translatable in the model is
+ * translated by both translators and the alloy modules are compared.
+ */
+public class XmiResourceCacheTest {
+
+  // where the obm xmi file and alloy library are
+  static final String ombmodel_directory = "src/test/resources";
+  static final File xmiFile = new File(ombmodel_directory, "OBMModel.xmi");
+
+  @Test
+  public void warmLoadTranslatesSameAsColdLoad(@TempDir Path cacheDirectory)
+      throws FileNotFoundException, UMLModelErrorException {
+    OBMXMI2Alloy cold = new OBMXMI2Alloy(ombmodel_directory);
+    cold.setXmiCacheDirectory(cacheDirectory.toFile());
+    assertTrue(cold.loadXmiFile(xmiFile), cold.getErrorMessages().toString());
+    File[] entries = cacheDirectory.toFile().listFiles((dir, name) -> name.endsWith(".obmbin"));
+    assertEquals(1, entries.length, "the cache entry is not saved");
+
+    OBMXMI2Alloy warm = new OBMXMI2Alloy(ombmodel_directory);
+    warm.setXmiCacheDirectory(cacheDirectory.toFile());
+    assertTrue(warm.loadXmiFile(xmiFile), warm.getErrorMessages().toString());
+    // an entry failed to load is removed
+    assertTrue(entries[0].isFile(), "the cache entry is not loaded");
+
+    List<String> qualifiedNames = cold.streamClassQualifiedNames(true).collect(Collectors.toList());
+    assertEquals(qualifiedNames, warm.streamClassQualifiedNames(true).collect(Collectors.toList()));
+    int translated = 0;
+    for (String qualifiedName : qualifiedNames) {
+      String coldText = cold.translateToString(qualifiedName);
+      String warmText = warm.translateToString(qualifiedName);
+      assertEquals(coldText, warmText, qualifiedName);
+      if (coldText != null) translated++;
+    }
+    assertTrue(translated > 0);
+  }
+}